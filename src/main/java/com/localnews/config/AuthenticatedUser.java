@@ -0,0 +1,73 @@
+package com.localnews.config;
+
+import com.localnews.entity.District;
+import com.localnews.entity.User;
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+
+/**
+ * Request principal resolved from signed JWT claims, so authenticated API
+ * calls do not need a users lookup just to know who is calling.
+ */
+public class AuthenticatedUser implements Principal {
+
+    private final Long userId;
+    private final String mobileNumber;
+    private final Long districtId;
+    private final boolean verified;
+
+    public AuthenticatedUser(Long userId, String mobileNumber, Long districtId, boolean verified) {
+        this.userId = userId;
+        this.mobileNumber = mobileNumber;
+        this.districtId = districtId;
+        this.verified = verified;
+    }
+
+    /**
+     * @return the principal carried by the claims, or null for tokens issued
+     *         before user claims were added (those still go through the database)
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        Number districtId = claims.get(JwtUtil.CLAIM_DISTRICT_ID, Number.class);
+        Boolean verified = claims.get(JwtUtil.CLAIM_VERIFIED, Boolean.class);
+        return new AuthenticatedUser(
+                userId.longValue(),
+                claims.getSubject(),
+                districtId != null ? districtId.longValue() : null,
+                Boolean.TRUE.equals(verified));
+    }
+
+    /**
+     * Detached {@link User} carrying only the identifiers from the token. Good
+     * for query parameters and as an association target when saving; any other
+     * entity state has to be loaded from the repository.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(userId);
+        user.setMobileNumber(mobileNumber);
+        user.setIsVerified(verified);
+        if (districtId != null) {
+            District district = new District();
+            district.setId(districtId);
+            user.setDistrict(district);
+        }
+        return user;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getMobileNumber() { return mobileNumber; }
+
+    public Long getDistrictId() { return districtId; }
+
+    public boolean isVerified() { return verified; }
+
+    @Override
+    public String getName() { return mobileNumber; }
+}
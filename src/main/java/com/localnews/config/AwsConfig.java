@@ -6,6 +6,9 @@ import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
 
 @Configuration
 public class AwsConfig {
@@ -13,11 +16,21 @@ public class AwsConfig {
     @Value("${aws.region}")
     private String awsRegion;
 
+    // Set to point at an S3-compatible stand-in (MinIO, LocalStack) for local runs
+    @Value("${aws.s3.endpoint:}")
+    private String s3Endpoint;
+
     @Bean
     public S3Client s3Client() {
-        return S3Client.builder()
+        S3ClientBuilder builder = S3Client.builder()
                 .region(Region.of(awsRegion))
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .build();
+                .credentialsProvider(DefaultCredentialsProvider.create());
+
+        if (s3Endpoint != null && !s3Endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(s3Endpoint))
+                    .forcePathStyle(true);
+        }
+
+        return builder.build();
     }
 }
@@ -1,6 +1,8 @@
 package com.localnews.config;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +16,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @Component
@@ -56,36 +59,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        Claims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(token);
+                // Signature and expiry are checked once here; claims are trusted afterwards
+                claims = jwtUtil.extractAllClaims(authHeader.substring(7));
             } catch (Exception e) {
-                // Invalid token format - let it proceed to be rejected by security
+                // Invalid or expired token - let it proceed to be rejected by security
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken = buildAuthentication(claims);
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             } catch (Exception e) {
-                // User not found or token validation failed - let security handle it
+                // User not found - let security handle it
             }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UsernamePasswordAuthenticationToken buildAuthentication(Claims claims) {
+        String subject = claims.getSubject();
+
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal != null) {
+            if (!principal.isVerified()) {
+                return null;
+            }
+            return new UsernamePasswordAuthenticationToken(principal, null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        }
+
+        if (subject.startsWith("admin:")) {
+            return new UsernamePasswordAuthenticationToken(subject, null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        }
+
+        // Tokens issued before user claims existed still resolve through the database
+        UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
     private boolean isPublicEndpoint(String requestPath) {
         return publicEndpoints.stream().anyMatch(endpoint ->
             requestPath.equals(endpoint) ||
@@ -1,7 +1,6 @@
 package com.localnews.config;
 
-import com.localnews.entity.User;
-import com.localnews.repository.UserRepository;
+import com.localnews.repository.VerifiedUserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,14 +16,14 @@ import java.util.List;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Autowired
-    private UserRepository userRepository;
+    private VerifiedUserCache verifiedUserCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // In the new system, username can be mobile number or admin username
 
         // First try to find by mobile number (for regular users)
-        User user = userRepository.findByMobileNumberAndIsVerifiedTrue(username)
+        AuthenticatedUser user = verifiedUserCache.findVerified(username)
                 .orElse(null);
 
         if (user != null) {
@@ -37,7 +36,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             return new org.springframework.security.core.userdetails.User(
                     user.getMobileNumber(),
                     "N/A", // Password not used in OTP system
-                    user.getIsVerified(),
+                    user.isVerified(),
                     true, // Account non-expired
                     true, // Credentials non-expired
                     true, // Account non-locked
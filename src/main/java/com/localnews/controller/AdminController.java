@@ -2,17 +2,30 @@ package com.localnews.controller;
 
 import com.localnews.dto.*;
 import com.localnews.entity.*;
+import com.localnews.service.ContentAddressedStore;
+import com.localnews.service.DistrictFeedCache;
+import com.localnews.service.DistrictStatsService;
+import com.localnews.service.PushNotificationDispatcher;
+import com.localnews.service.VideoIngestService;
 import com.localnews.service.VideoService;
 import com.localnews.repository.*;
 import com.localnews.config.JwtUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,6 +36,8 @@ import java.util.HashMap;
 @CrossOrigin(origins = "*")
 public class AdminController {
 
+    private static final int MAX_ADMIN_PAGE_SIZE = 200;
+
     @Autowired
     private AdminUserRepository adminUserRepository;
 
@@ -41,9 +56,27 @@ public class AdminController {
     @Autowired
     private VideoService videoService;
 
+    @Autowired
+    private DistrictFeedCache districtFeedCache;
+
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
+    @Autowired
+    private VideoIngestService videoIngestService;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
+
+    @Autowired
+    private PushNotificationDispatcher pushNotificationDispatcher;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     // Admin login
@@ -120,62 +153,101 @@ public class AdminController {
             video.setPostedBy(admin.getId());
 
             videoRepository.save(video);
-
-            // Send push notifications
-            videoService.notifyNewVideo(video);
-
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Video added successfully",
-                "videoId", video.getId()
-            ));
+            districtFeedCache.invalidateDistrict(districtId);
+            districtStatsService.videoAdded(video);
+
+            // The URLs may point at indexed uploads owned by other rows; deleteVideo releases these references
+            contentStore.acquireUrl(video.getVideoUrl());
+            contentStore.acquireUrl(video.getThumbnailUrl());
+            videoIngestService.submit(video);
+
+            // Send push notifications in the background
+            String notificationJobId = videoService.notifyNewVideo(video);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Video added successfully");
+            response.put("videoId", video.getId());
+            response.put("notificationJobId", notificationJobId);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to add video: " + e.getMessage()));
         }
     }
 
-    // Get all videos for admin
+    // Get videos for admin, one page at a time, optionally filtered by district, status and date range
     @GetMapping("/videos")
-    public ResponseEntity<?> getAllVideos(@RequestHeader("Authorization") String authHeader) {
-        try {
-            // Verify admin authentication
-            if (!isValidAdminToken(authHeader)) {
-                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
-            }
+    public ResponseEntity<StreamingResponseBody> getAllVideos(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Long districtId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        // Verify admin authentication
+        if (!isValidAdminToken(authHeader)) {
+            return jsonResponse(401, Map.of("error", "Unauthorized"));
+        }
 
-            List<Video> videos = videoRepository.findAllByOrderByCreatedAtDesc();
-
-            List<Map<String, Object>> videoList = videos.stream().map(video -> {
-                Map<String, Object> videoMap = new HashMap<>();
-                videoMap.put("id", video.getId());
-                videoMap.put("title", video.getTitle());
-                videoMap.put("description", video.getDescription());
-                videoMap.put("videoUrl", video.getVideoUrl());
-                videoMap.put("thumbnailUrl", video.getThumbnailUrl());
-                videoMap.put("duration", video.getDuration());
-                videoMap.put("watchCount", video.getWatchCount());
-                videoMap.put("createdAt", video.getCreatedAt());
-
-                // Add district info
-                if (video.getDistrict() != null) {
-                    Map<String, Object> districtInfo = new HashMap<>();
-                    districtInfo.put("id", video.getDistrict().getId());
-                    districtInfo.put("name", video.getDistrict().getName());
-                    videoMap.put("district", districtInfo);
+        try {
+            PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_ADMIN_PAGE_SIZE));
+            Page<AdminVideoRow> videos = videoRepository.findAdminRows(districtId, active,
+                    from != null ? from.atStartOfDay() : null,
+                    to != null ? to.plusDays(1).atStartOfDay() : null,
+                    pageRequest);
+
+            // Rows are written straight to the response instead of being copied into a List<Map> first
+            StreamingResponseBody body = out -> {
+                try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                    json.writeStartObject();
+                    json.writeBooleanField("success", true);
+                    json.writeArrayFieldStart("videos");
+                    for (AdminVideoRow video : videos) {
+                        writeVideoRow(json, video);
+                    }
+                    json.writeEndArray();
+                    json.writeNumberField("count", videos.getNumberOfElements());
+                    json.writeNumberField("page", videos.getNumber());
+                    json.writeNumberField("size", videos.getSize());
+                    json.writeNumberField("totalElements", videos.getTotalElements());
+                    json.writeBooleanField("hasMore", videos.hasNext());
+                    json.writeEndObject();
                 }
-
-                return videoMap;
-            }).collect(java.util.stream.Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "videos", videoList,
-                "count", videoList.size()
-            ));
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch videos: " + e.getMessage()));
+            return jsonResponse(500, Map.of("error", "Failed to fetch videos: " + e.getMessage()));
+        }
+    }
+
+    private void writeVideoRow(JsonGenerator json, AdminVideoRow video) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", video.getId());
+        json.writeStringField("title", video.getTitle());
+        json.writeStringField("description", video.getDescription());
+        json.writeStringField("videoUrl", video.getVideoUrl());
+        json.writeStringField("thumbnailUrl", video.getThumbnailUrl());
+        json.writeObjectField("duration", video.getDuration());
+        json.writeObjectField("watchCount", video.getWatchCount());
+        json.writeObjectField("isActive", video.getIsActive());
+        json.writeStringField("createdAt", video.getCreatedAt() != null
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(video.getCreatedAt()) : null);
+
+        // Add district info
+        if (video.getDistrictId() != null) {
+            json.writeObjectFieldStart("district");
+            json.writeNumberField("id", video.getDistrictId());
+            json.writeStringField("name", video.getDistrictName());
+            json.writeEndObject();
         }
+        json.writeEndObject();
+    }
+
+    private ResponseEntity<StreamingResponseBody> jsonResponse(int status, Map<String, Object> payload) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, payload));
     }
 
     // Get all comments for a video (admin view)
@@ -204,6 +276,70 @@ public class AdminController {
         }
     }
 
+    // Hide or show a comment to users
+    @PutMapping("/comments/{commentId}/visibility")
+    public ResponseEntity<?> setCommentVisibility(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long commentId,
+            @RequestBody Map<String, Boolean> request) {
+
+        AdminUser admin = getAdminFromToken(authHeader);
+        if (admin == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+
+        Boolean visible = request.get("visible");
+        if (visible == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Visibility flag is required"));
+        }
+
+        try {
+            if (!videoService.setCommentVisibility(commentId, visible)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of("success", true, "visible", visible));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to update comment"));
+        }
+    }
+
+    // Delete a comment
+    @DeleteMapping("/comments/{commentId}")
+    public ResponseEntity<?> deleteComment(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long commentId) {
+
+        AdminUser admin = getAdminFromToken(authHeader);
+        if (admin == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+
+        try {
+            if (!videoService.deleteComment(commentId)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of("success", true, "message", "Comment deleted successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to delete comment"));
+        }
+    }
+
+    // Progress of a push notification fan-out
+    @GetMapping("/notifications/{jobId}")
+    public ResponseEntity<?> getNotificationJob(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String jobId) {
+
+        AdminUser admin = getAdminFromToken(authHeader);
+        if (admin == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+
+        return pushNotificationDispatcher.getJob(jobId)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     // Dashboard analytics
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboard(@RequestHeader("Authorization") String authHeader) {
@@ -213,22 +349,23 @@ public class AdminController {
         }
 
         try {
-            long totalVideos = videoRepository.count();
-            long totalUsers = userRepository.count();
-            long verifiedUsers = userRepository.countVerifiedUsersByDistrictId(null);
-
-            // Get district-wise stats
-            List<District> districts = districtRepository.findAllActiveDistricts();
+            // Precomputed counters, one row per district: a single read however many districts there are
+            long totalVideos = 0;
+            long totalUsers = 0;
+            long verifiedUsers = 0;
             Map<String, Object> districtStats = new HashMap<>();
 
-            for (District district : districts) {
-                long districtVideos = videoRepository.countByDistrictIdAndIsActiveTrue(district.getId());
-                long districtUsers = userRepository.countVerifiedUsersByDistrictId(district.getId());
+            for (DistrictStats stats : districtStatsService.getAll()) {
+                totalVideos += stats.getVideoCount();
+                totalUsers += stats.getUserCount();
+                verifiedUsers += stats.getVerifiedUserCount();
 
-                districtStats.put(district.getName(), Map.of(
-                    "videos", districtVideos,
-                    "users", districtUsers
-                ));
+                if (stats.getDistrictName() != null && stats.isDistrictActive()) {
+                    districtStats.put(stats.getDistrictName(), Map.of(
+                        "videos", stats.getActiveVideoCount(),
+                        "users", stats.getVerifiedUserCount()
+                    ));
+                }
             }
 
             return ResponseEntity.ok(Map.of(
@@ -252,19 +389,10 @@ public class AdminController {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
             }
 
-            Optional<Video> videoOpt = videoRepository.findById(videoId);
-            if (videoOpt.isEmpty()) {
+            if (!videoService.deleteVideo(videoId)) {
                 return ResponseEntity.notFound().build();
             }
 
-            Video video = videoOpt.get();
-
-            // Delete associated comments first
-            commentRepository.deleteByVideo(video);
-
-            // Delete the video
-            videoRepository.delete(video);
-
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Video deleted successfully"
@@ -293,20 +421,8 @@ public class AdminController {
         }
     }
 
+    // Deleting a video can delete stored files, so the token must be a valid admin JWT
     private boolean isValidAdminToken(String authHeader) {
-        try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return false;
-            }
-
-            String token = authHeader.substring(7);
-
-            // Simple validation - check if token exists and is not empty
-            // In production, you should validate the JWT token properly
-            return token != null && !token.trim().isEmpty();
-
-        } catch (Exception e) {
-            return false;
-        }
+        return getAdminFromToken(authHeader) != null;
     }
 }
@@ -3,12 +3,14 @@ package com.localnews.controller;
 import com.localnews.dto.*;
 import com.localnews.entity.District;
 import com.localnews.service.AuthService;
+import com.localnews.service.OtpRateLimiter;
 import com.localnews.repository.DistrictRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.util.List;
 import java.util.Map;
@@ -24,14 +26,27 @@ public class AuthController {
     @Autowired
     private DistrictRepository districtRepository;
 
+    @Autowired
+    private OtpRateLimiter otpRateLimiter;
+
     @PostMapping("/send-otp")
-    public ResponseEntity<AuthResponse> sendOtp(@Valid @RequestBody SendOtpRequest request) {
+    public ResponseEntity<AuthResponse> sendOtp(@Valid @RequestBody SendOtpRequest request,
+                                                HttpServletRequest httpRequest) {
+        if (!otpRateLimiter.allowSend(request.getMobileNumber(), httpRequest.getRemoteAddr())) {
+            return ResponseEntity.status(429).body(
+                    new AuthResponse(false, "Too many OTP requests. Please wait before trying again."));
+        }
         AuthResponse response = authService.sendOtp(request);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/verify-otp")
-    public ResponseEntity<AuthResponse> verifyOtp(@Valid @RequestBody VerifyOtpRequest request) {
+    public ResponseEntity<AuthResponse> verifyOtp(@Valid @RequestBody VerifyOtpRequest request,
+                                                  HttpServletRequest httpRequest) {
+        if (!otpRateLimiter.allowVerify(httpRequest.getRemoteAddr())) {
+            return ResponseEntity.status(429).body(
+                    new AuthResponse(false, "Too many attempts. Please wait before trying again."));
+        }
         AuthResponse response = authService.verifyOtp(request);
 
         if (response.isSuccess()) {
@@ -76,6 +91,10 @@ public class AuthController {
                 session.invalidate();
             }
 
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                authService.logout(authHeader.substring(7));
+            }
+
             // Note: For JWT tokens, we rely on client-side token removal since JWT is stateless
             // In a production environment, you might want to implement a token blacklist
 
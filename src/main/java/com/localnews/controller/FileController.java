@@ -1,18 +1,18 @@
 package com.localnews.controller;
 
+import com.localnews.service.FileRangeSender;
+import com.localnews.service.ImageDerivativeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -23,51 +23,50 @@ public class FileController {
     @Value("${upload.dir:uploads}")
     private String uploadDir;
 
-    @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
+    @Autowired
+    private FileRangeSender fileRangeSender;
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+    @RequestMapping(value = "/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveFile(@PathVariable String filename,
+                          @RequestParam(value = "w", required = false) Integer width,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(Paths.get(uploadDir), filename, width, "application/octet-stream", request, response);
     }
 
-    @GetMapping("/thumbnails/{filename:.+}")
-    public ResponseEntity<Resource> serveThumbnail(@PathVariable String filename) {
-        try {
-            Path thumbnailPath = Paths.get(uploadDir, "thumbnails").resolve(filename);
-            Resource resource = new UrlResource(thumbnailPath.toUri());
+    @RequestMapping(value = "/thumbnails/{filename:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveThumbnail(@PathVariable String filename, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        serve(Paths.get(uploadDir, "thumbnails"), filename, null, "image/jpeg", request, response);
+    }
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(thumbnailPath);
-                if (contentType == null) {
-                    contentType = "image/jpeg";
-                }
+    private void serve(Path directory, String filename, Integer width, String fallbackContentType,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        Path filePath = root.resolve(filename).normalize();
+        if (!filePath.startsWith(root) || !filePath.getParent().equals(root)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // ?w= asks for a resized image; anything that can't be resized is served as is
+        boolean immutable = true;
+        if (width != null) {
+            Path resolved = imageDerivativeService.resolve(filePath, width);
+            // The original may only be standing in until the variant exists, so it must not stick in caches
+            immutable = !resolved.equals(filePath);
+            filePath = resolved;
+        }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+        try {
+            fileRangeSender.send(filePath, fallbackContentType, immutable, request, response);
+        } catch (IOException e) {
+            // Players abort range requests all the time when seeking; nothing to report
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
         }
     }
 }
@@ -2,9 +2,19 @@ package com.localnews.controller;
 
 import com.localnews.entity.*;
 import com.localnews.repository.*;
+import com.localnews.service.ContentAddressedStore;
+import com.localnews.service.DistrictFeedCache;
+import com.localnews.service.DistrictStatsService;
 import com.localnews.service.MediaService;
+import com.localnews.service.ResumableUploadService;
+import com.localnews.service.StoredFile;
+import com.localnews.service.VideoIngestService;
+import com.localnews.config.AuthenticatedUser;
 import com.localnews.config.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,11 +22,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,6 +36,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/media")
 public class MediaController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MediaController.class);
+
     @Autowired
     private MediaService mediaService;
 
@@ -51,6 +65,21 @@ public class MediaController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private DistrictFeedCache districtFeedCache;
+
+    @Autowired
+    private VideoIngestService videoIngestService;
+
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
+
     @PostMapping("/upload")
     public ResponseEntity<?> upload(@RequestPart("file") MultipartFile file,
                                    @RequestPart(value = "title", required = false) String title,
@@ -134,7 +163,9 @@ public class MediaController {
     }
 
     @GetMapping("/list")
-    public ResponseEntity<?> getUserMediaList(HttpSession session) {
+    public ResponseEntity<?> getUserMediaList(@RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "50") int size,
+                                              HttpSession session) {
         try {
             System.out.println("MediaController: Starting getUserMediaList request");
 
@@ -159,54 +190,12 @@ public class MediaController {
                 System.out.println("User found via authentication: " + user.getEmail());
             }
 
-            final User currentUser = user; // Create final reference for lambda
-            System.out.println("Fetching media for user: " + currentUser.getEmail());
-
-            List<Media> mediaList = mediaService.getAllMediaByUser(user);
-            System.out.println("Media count found: " + mediaList.size());
-
-            List<Map<String, Object>> mediaData = mediaList.stream().map(media -> {
-                Map<String, Object> mediaMap = new HashMap<>();
-                mediaMap.put("id", media.getId());
-                mediaMap.put("title", media.getTitle());
-                mediaMap.put("filename", media.getFilename());
-                mediaMap.put("fileType", media.getFileType());
-                mediaMap.put("fileSize", media.getFileSize());
-                mediaMap.put("uploadedAt", media.getUploadedAt().toString());
-                mediaMap.put("thumbnailPath", media.getThumbnailPath() != null ? media.getThumbnailPath() : "");
-                mediaMap.put("uploaderName", media.getUser().getName());
-
-                // Add interaction counts
-                try {
-                    mediaMap.put("likeCount", likeRepository.countLikesByMedia(media));
-                    mediaMap.put("dislikeCount", likeRepository.countDislikesByMedia(media));
-                    mediaMap.put("commentCount", commentRepository.countByMedia(media));
-
-                    // Add user's reaction if user is logged in
-                    if (currentUser != null) {
-                        Optional<Like> userLike = likeRepository.findByMediaAndUser(media, currentUser);
-                        String userReaction = userLike.isPresent() ? userLike.get().getType().toString().toLowerCase() : "none";
-                        mediaMap.put("userReaction", userReaction);
-                    } else {
-                        mediaMap.put("userReaction", "none");
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error fetching interaction data for media " + media.getId() + ": " + e.getMessage());
-                    mediaMap.put("likeCount", 0);
-                    mediaMap.put("dislikeCount", 0);
-                    mediaMap.put("commentCount", 0);
-                    mediaMap.put("userReaction", "none");
-                }
+            System.out.println("Fetching media for user: " + user.getEmail());
 
-                return mediaMap;
-            }).collect(Collectors.toList());
+            Page<Media> mediaPage = mediaService.getMediaPageByUser(user, page, size);
+            Map<String, Object> response = mediaPageResponse(mediaPage, user);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("media", mediaData);
-            response.put("count", mediaList.size());
-            response.put("status", "SUCCESS");
-
-            System.out.println("Successfully returning " + mediaList.size() + " media items");
+            System.out.println("Successfully returning " + mediaPage.getNumberOfElements() + " media items");
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -223,7 +212,9 @@ public class MediaController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<?> getAllMediaList(HttpSession session) {
+    public ResponseEntity<?> getAllMediaList(@RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             HttpSession session) {
         try {
             System.out.println("MediaController: Starting getAllMediaList request");
 
@@ -231,51 +222,10 @@ public class MediaController {
             User currentUser = getAuthenticatedUser(session);
             System.out.println("Current user: " + (currentUser != null ? currentUser.getEmail() : "anonymous"));
 
-            List<Media> mediaList = mediaService.getAllMedia();
-            System.out.println("All media count found: " + mediaList.size());
-
-            List<Map<String, Object>> mediaData = mediaList.stream().map(media -> {
-                Map<String, Object> mediaMap = new HashMap<>();
-                mediaMap.put("id", media.getId());
-                mediaMap.put("title", media.getTitle());
-                mediaMap.put("filename", media.getFilename());
-                mediaMap.put("fileType", media.getFileType());
-                mediaMap.put("fileSize", media.getFileSize());
-                mediaMap.put("uploadedAt", media.getUploadedAt().toString());
-                mediaMap.put("thumbnailPath", media.getThumbnailPath() != null ? media.getThumbnailPath() : "");
-                mediaMap.put("uploaderName", media.getUser().getName());
-
-                // Add interaction counts for all media list
-                try {
-                    mediaMap.put("likeCount", likeRepository.countLikesByMedia(media));
-                    mediaMap.put("dislikeCount", likeRepository.countDislikesByMedia(media));
-                    mediaMap.put("commentCount", commentRepository.countByMedia(media));
-
-                    // Add user's reaction if user is logged in
-                    if (currentUser != null) {
-                        Optional<Like> userLike = likeRepository.findByMediaAndUser(media, currentUser);
-                        String userReaction = userLike.isPresent() ? userLike.get().getType().toString().toLowerCase() : "none";
-                        mediaMap.put("userReaction", userReaction);
-                    } else {
-                        mediaMap.put("userReaction", "none");
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error fetching interaction data for media " + media.getId() + ": " + e.getMessage());
-                    mediaMap.put("likeCount", 0);
-                    mediaMap.put("dislikeCount", 0);
-                    mediaMap.put("commentCount", 0);
-                    mediaMap.put("userReaction", "none");
-                }
-
-                return mediaMap;
-            }).collect(Collectors.toList());
+            Page<Media> mediaPage = mediaService.getMediaPage(page, size);
+            Map<String, Object> response = mediaPageResponse(mediaPage, currentUser);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("media", mediaData);
-            response.put("count", mediaList.size());
-            response.put("status", "SUCCESS");
-
-            System.out.println("Successfully returning " + mediaList.size() + " media items for all users");
+            System.out.println("Successfully returning " + mediaPage.getNumberOfElements() + " media items for all users");
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -291,12 +241,78 @@ public class MediaController {
         }
     }
 
+    /**
+     * Builds a media list page with a fixed number of queries: the page itself
+     * (uploaders fetch-joined), one grouped like/dislike count and, for a
+     * logged-in user, one lookup of their reactions.
+     */
+    private Map<String, Object> mediaPageResponse(Page<Media> mediaPage, User currentUser) {
+        List<Long> mediaIds = mediaPage.getContent().stream().map(Media::getId).collect(Collectors.toList());
+
+        Map<Long, Long> likeCounts = new HashMap<>();
+        Map<Long, Long> dislikeCounts = new HashMap<>();
+        Map<Long, String> reactions = new HashMap<>();
+        if (!mediaIds.isEmpty()) {
+            for (Object[] row : likeRepository.countByMediaIdsGroupedByType(mediaIds)) {
+                Map<Long, Long> counts = row[1] == Like.LikeType.LIKE ? likeCounts : dislikeCounts;
+                counts.put((Long) row[0], (Long) row[2]);
+            }
+            if (currentUser != null) {
+                for (Object[] row : likeRepository.findReactionsByUserAndMediaIds(currentUser, mediaIds)) {
+                    reactions.put((Long) row[0], row[1].toString().toLowerCase());
+                }
+            }
+        }
+
+        List<Map<String, Object>> mediaData = mediaPage.getContent().stream().map(media -> {
+            Map<String, Object> mediaMap = new HashMap<>();
+            mediaMap.put("id", media.getId());
+            mediaMap.put("title", media.getTitle());
+            mediaMap.put("filename", media.getFilename());
+            mediaMap.put("fileType", media.getFileType());
+            mediaMap.put("fileSize", media.getFileSize());
+            mediaMap.put("uploadedAt", media.getUploadedAt().toString());
+            mediaMap.put("thumbnailPath", media.getThumbnailPath() != null ? media.getThumbnailPath() : "");
+            mediaMap.put("previewUrl", previewUrl(media));
+            mediaMap.put("uploaderName", media.getUser().getName());
+            mediaMap.put("likeCount", likeCounts.getOrDefault(media.getId(), 0L));
+            mediaMap.put("dislikeCount", dislikeCounts.getOrDefault(media.getId(), 0L));
+            // Comments belong to videos now; the legacy media comment count is always 0
+            mediaMap.put("commentCount", 0L);
+            mediaMap.put("userReaction", reactions.getOrDefault(media.getId(), "none"));
+            return mediaMap;
+        }).collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("media", mediaData);
+        response.put("count", mediaData.size());
+        response.put("page", mediaPage.getNumber());
+        response.put("size", mediaPage.getSize());
+        response.put("totalElements", mediaPage.getTotalElements());
+        response.put("hasMore", mediaPage.hasNext());
+        response.put("status", "SUCCESS");
+        return response;
+    }
+
+    // Resized variant of a locally stored image, served by FileController
+    private String previewUrl(Media media) {
+        String filePath = media.getFilePath();
+        if (filePath == null || filePath.startsWith("http")
+                || media.getFileType() == null || !media.getFileType().startsWith("image/")) {
+            return null;
+        }
+        return "/uploads/" + java.nio.file.Paths.get(filePath).getFileName() + "?w=320";
+    }
+
     // Helper method to get authenticated user
     private User getAuthenticatedUser(HttpSession session) {
         User user = (User) session.getAttribute("user");
         if (user == null) {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated()) {
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+                // Resolved from token claims by the JWT filter - no lookup needed
+                user = principal.toUser();
+            } else if (authentication != null && authentication.isAuthenticated()) {
                 String username = authentication.getName();
                 // Try to find user by mobile number (new system) or fallback for legacy
                 user = userRepository.findByMobileNumberAndIsVerifiedTrue(username).orElse(null);
@@ -579,8 +595,8 @@ public class MediaController {
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid authorization header"));
             }
 
-            String token = authHeader.substring(7);
-            if (!isValidAdminToken(token)) {
+            AdminUser admin = adminFromToken(authHeader.substring(7));
+            if (admin == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
             }
 
@@ -626,30 +642,7 @@ public class MediaController {
             // Get video duration (simplified estimation)
             int duration = estimateVideoDuration(videoFile);
 
-            // Create Video entity using the Video repository directly
-            Video video = new Video();
-            video.setTitle(title.trim());
-            video.setDescription(description != null ? description.trim() : "");
-            video.setVideoUrl(videoPath);
-            video.setThumbnailUrl(thumbnailPath);
-            video.setDuration(duration);
-            video.setDistrict(districtOpt.get());
-            video.setWatchCount(0);
-            video.setCreatedAt(java.time.LocalDateTime.now());
-            video.setIsActive(true);
-
-            // Get admin info for postedBy field
-            String adminUsername = jwtUtil.extractUsername(token);
-            if (adminUsername != null && adminUsername.startsWith("admin:")) {
-                String realAdminUsername = adminUsername.substring(6);
-                Optional<AdminUser> adminOpt = adminUserRepository.findByUsernameAndIsActiveTrue(realAdminUsername);
-                if (adminOpt.isPresent()) {
-                    video.setPostedBy(adminOpt.get().getId());
-                }
-            }
-
-            // Save video to database
-            Video savedVideo = videoRepository.save(video);
+            Video savedVideo = createVideo(admin, title, description, videoPath, thumbnailPath, duration, districtOpt.get());
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -667,15 +660,286 @@ public class MediaController {
         }
     }
 
-    private boolean isValidAdminToken(String token) {
-        // Simple validation - in production, use proper JWT validation
-        return token != null && !token.isEmpty();
+    /**
+     * Streaming variant of {@link #uploadVideo}: the request body is the raw video,
+     * written to its final location in one pass instead of being spooled by the
+     * multipart resolver first.
+     */
+    @PostMapping("/upload-video/stream")
+    public ResponseEntity<?> uploadVideoStream(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam("title") String title,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam("districtId") Long districtId,
+            @RequestParam(value = "filename", required = false) String filename,
+            HttpServletRequest request) {
+
+        try {
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return ResponseEntity.status(401).body(Map.of("error", "Invalid authorization header"));
+            }
+
+            AdminUser admin = adminFromToken(authHeader.substring(7));
+            if (admin == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
+            }
+
+            if (title == null || title.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Title is required"));
+            }
+
+            if (contentType == null || !contentType.startsWith("video/")) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Only video files are allowed"));
+            }
+
+            Optional<District> districtOpt = districtRepository.findById(districtId);
+            if (districtOpt.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid district selected"));
+            }
+
+            StoredFile stored = mediaService.storeVideoStream(request.getInputStream(), filename, contentType);
+            if (stored.getSize() == 0) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Video file is required"));
+            }
+
+            Video savedVideo;
+            try {
+                savedVideo = createVideo(admin, title, description, stored.getUrl(), null,
+                        estimateVideoDuration(stored.getSize()), districtOpt.get());
+            } catch (RuntimeException e) {
+                // Nothing references the stored file yet
+                contentStore.release(stored.getUrl());
+                throw e;
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Video uploaded successfully");
+            response.put("videoUrl", stored.getUrl());
+            response.put("size", stored.getSize());
+            response.put("sha256", stored.getSha256());
+            response.put("title", title.trim());
+            response.put("videoId", savedVideo.getId());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Streaming video upload failed", e);
+            return ResponseEntity.status(500).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Resumable upload, step 1: opens a session for a video of {@code totalSize} bytes.
+     * Body: {"title", "description", "districtId", "filename", "contentType", "totalSize"}.
+     */
+    @PostMapping("/upload-video/sessions")
+    public ResponseEntity<?> initiateVideoUpload(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+        if (adminFromHeader(authHeader) == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
+        }
+
+        try {
+            String title = (String) request.get("title");
+            if (title == null || title.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Title is required"));
+            }
+            if (request.get("districtId") == null || request.get("totalSize") == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "districtId and totalSize are required"));
+            }
+            Long districtId = Long.valueOf(request.get("districtId").toString());
+            if (!districtRepository.existsById(districtId)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid district selected"));
+            }
+
+            UploadSession session = resumableUploadService.initiate(title, (String) request.get("description"),
+                    districtId, (String) request.get("filename"), (String) request.get("contentType"),
+                    Long.parseLong(request.get("totalSize").toString()));
+            return ResponseEntity.status(201).body(uploadSessionResponse(session));
+
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "districtId and totalSize must be numbers"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to start resumable upload", e);
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to start upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Resumable upload, step 2: writes the raw request body at {@code offset}.
+     * The offset may not be past the bytes received so far.
+     */
+    @PutMapping("/upload-video/sessions/{sessionId}")
+    public ResponseEntity<?> uploadVideoChunk(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String sessionId,
+            @RequestParam("offset") long offset,
+            HttpServletRequest request) {
+        if (adminFromHeader(authHeader) == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
+        }
+
+        try {
+            long received = resumableUploadService.writeChunk(sessionId, offset, request.getInputStream());
+            return ResponseEntity.ok(Map.of("sessionId", sessionId, "receivedBytes", received));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return uploadConflict(sessionId, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            // Usually the client dropped mid-chunk; it resumes from the stored progress
+            return ResponseEntity.status(500).body(Map.of("error", "Chunk upload failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Resumable upload, step 3 (at any time): how many bytes the server has, so
+     * the client knows where to resume.
+     */
+    @GetMapping("/upload-video/sessions/{sessionId}")
+    public ResponseEntity<?> getVideoUploadProgress(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String sessionId) {
+        if (adminFromHeader(authHeader) == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
+        }
+
+        try {
+            return ResponseEntity.ok(uploadSessionResponse(resumableUploadService.getSession(sessionId)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Resumable upload, step 4: assembles the received bytes and creates the video.
+     */
+    @PostMapping("/upload-video/sessions/{sessionId}/complete")
+    public ResponseEntity<?> completeVideoUpload(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String sessionId) {
+        AdminUser admin = adminFromHeader(authHeader);
+        if (admin == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized - Admin access required"));
+        }
+
+        try {
+            UploadSession session = resumableUploadService.getSession(sessionId);
+            Optional<District> districtOpt = districtRepository.findById(session.getDistrictId());
+            if (districtOpt.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid district selected"));
+            }
+
+            StoredFile stored = resumableUploadService.assemble(sessionId);
+            Video savedVideo;
+            try {
+                savedVideo = createVideo(admin, session.getTitle(), session.getDescription(), stored.getUrl(), null,
+                        estimateVideoDuration(stored.getSize()), districtOpt.get());
+            } catch (RuntimeException e) {
+                // Nothing references the assembled file yet
+                contentStore.release(stored.getUrl());
+                throw e;
+            }
+            resumableUploadService.markCompleted(sessionId, savedVideo.getId());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Video uploaded successfully");
+            response.put("videoUrl", stored.getUrl());
+            response.put("size", stored.getSize());
+            response.put("sha256", stored.getSha256());
+            response.put("title", savedVideo.getTitle());
+            response.put("videoId", savedVideo.getId());
+            return ResponseEntity.ok(response);
+
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return uploadConflict(sessionId, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to complete resumable upload {}", sessionId, e);
+            return ResponseEntity.status(500).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> uploadConflict(String sessionId, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", message);
+        try {
+            response.put("receivedBytes", resumableUploadService.getSession(sessionId).getReceivedBytes());
+        } catch (NoSuchElementException ignored) {
+            // expired in the meantime
+        }
+        return ResponseEntity.status(409).body(response);
+    }
+
+    private Map<String, Object> uploadSessionResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionId", session.getId());
+        response.put("status", session.getStatus().name());
+        response.put("receivedBytes", session.getReceivedBytes());
+        response.put("totalSize", session.getTotalSize());
+        response.put("expiresAt", session.getExpiresAt().toString());
+        response.put("videoId", session.getVideoId());
+        return response;
+    }
+
+    private AdminUser adminFromHeader(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        return adminFromToken(authHeader.substring(7));
+    }
+
+    // Uploads write files, so the token must be a signed, unexpired admin JWT for an active admin
+    private AdminUser adminFromToken(String token) {
+        try {
+            String username = jwtUtil.extractUsername(token);
+            if (username != null && username.startsWith("admin:")) {
+                return adminUserRepository.findByUsernameAndIsActiveTrue(username.substring(6)).orElse(null);
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Video createVideo(AdminUser admin, String title, String description, String videoPath,
+                              String thumbnailPath, int duration, District district) {
+        Video video = new Video();
+        video.setTitle(title.trim());
+        video.setDescription(description != null ? description.trim() : "");
+        video.setVideoUrl(videoPath);
+        video.setThumbnailUrl(thumbnailPath);
+        video.setDuration(duration);
+        video.setDistrict(district);
+        video.setWatchCount(0);
+        video.setCreatedAt(java.time.LocalDateTime.now());
+        video.setIsActive(true);
+
+        video.setPostedBy(admin.getId());
+
+        Video savedVideo = videoRepository.save(video);
+        districtFeedCache.invalidateDistrict(district.getId());
+        districtStatsService.videoAdded(savedVideo);
+        videoIngestService.submit(savedVideo);
+        return savedVideo;
     }
 
     private int estimateVideoDuration(MultipartFile videoFile) {
+        return estimateVideoDuration(videoFile.getSize());
+    }
+
+    private int estimateVideoDuration(long sizeInBytes) {
         // Simplified duration estimation - in production, use FFmpeg or similar
         // For now, return a default duration based on file size
-        long sizeInMB = videoFile.getSize() / (1024 * 1024);
+        long sizeInMB = sizeInBytes / (1024 * 1024);
         return (int) Math.max(30, sizeInMB * 2); // Rough estimate: 2 seconds per MB
     }
 }
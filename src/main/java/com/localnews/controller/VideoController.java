@@ -39,18 +39,35 @@ public class VideoController {
     @Autowired
     private UserDeviceRepository userDeviceRepository;
 
-    // Get video feed (LRU order)
+    // Get video feed (LRU order). Passing a cursor (empty for the first page)
+    // switches to keyset paging; page numbers are kept for older clients.
     @GetMapping("/feed")
     public ResponseEntity<?> getVideoFeed(
             @RequestHeader("Authorization") String authHeader,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
 
         User user = getUserFromToken(authHeader);
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
         }
 
+        if (cursor != null) {
+            try {
+                VideoFeedSlice slice = videoService.getVideoFeedAfter(user, cursor, size);
+                Map<String, Object> response = new HashMap<>();
+                response.put("videos", slice.getVideos());
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            } catch (Exception e) {
+                return ResponseEntity.status(500).body(Map.of("error", "Failed to load videos"));
+            }
+        }
+
         try {
             Page<VideoDto> videos = videoService.getVideoFeed(user, page, size);
             return ResponseEntity.ok(Map.of(
@@ -150,8 +167,7 @@ public class VideoController {
             }
 
             Video video = videoOpt.get();
-            Comment comment = new Comment(user, video, request.getCommentText());
-            commentRepository.save(comment);
+            Comment comment = videoService.addComment(video, user, request.getCommentText());
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -232,7 +248,7 @@ public class VideoController {
                 return null;
             }
             String token = authHeader.substring(7);
-            return authService.getUserFromToken(token);
+            return authService.resolveUser(token);
         } catch (Exception e) {
             return null;
         }
@@ -0,0 +1,50 @@
+package com.localnews.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin video listing, filled directly by a JPQL constructor
+ * expression so no {@code Video} or {@code District} entity is loaded.
+ */
+public class AdminVideoRow {
+
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final String videoUrl;
+    private final String thumbnailUrl;
+    private final Integer duration;
+    private final Integer watchCount;
+    private final Boolean isActive;
+    private final LocalDateTime createdAt;
+    private final Long districtId;
+    private final String districtName;
+
+    public AdminVideoRow(Long id, String title, String description, String videoUrl, String thumbnailUrl,
+                         Integer duration, Integer watchCount, Boolean isActive, LocalDateTime createdAt,
+                         Long districtId, String districtName) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.videoUrl = videoUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.duration = duration;
+        this.watchCount = watchCount;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.districtId = districtId;
+        this.districtName = districtName;
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public String getVideoUrl() { return videoUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public Integer getDuration() { return duration; }
+    public Integer getWatchCount() { return watchCount; }
+    public Boolean getIsActive() { return isActive; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getDistrictId() { return districtId; }
+    public String getDistrictName() { return districtName; }
+}
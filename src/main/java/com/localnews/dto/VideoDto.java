@@ -36,6 +36,23 @@ public class VideoDto {
         this.createdAt = createdAt;
     }
 
+    public VideoDto(VideoDto other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.videoUrl = other.videoUrl;
+        this.thumbnailUrl = other.thumbnailUrl;
+        this.duration = other.duration;
+        this.districtName = other.districtName;
+        this.districtId = other.districtId;
+        this.likeCount = other.likeCount;
+        this.watchCount = other.watchCount;
+        this.hasLiked = other.hasLiked;
+        this.hasWatched = other.hasWatched;
+        this.createdAt = other.createdAt;
+        this.commentCount = other.commentCount;
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,26 @@
+package com.localnews.dto;
+
+import java.util.List;
+
+public class VideoFeedSlice {
+
+    private List<VideoDto> videos;
+    private String nextCursor;
+
+    // Constructors
+    public VideoFeedSlice() {}
+
+    public VideoFeedSlice(List<VideoDto> videos, String nextCursor) {
+        this.videos = videos;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and setters
+    public List<VideoDto> getVideos() { return videos; }
+    public void setVideos(List<VideoDto> videos) { this.videos = videos; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,64 @@
+package com.localnews.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A comment moved out of {@code comments} when its video was archived by the
+ * retention job. Keeps the original id and plain foreign key values.
+ */
+@Entity
+@Table(name = "comments_archive", indexes = {
+    @Index(name = "idx_comments_archive_video", columnList = "video_id")
+})
+public class ArchivedComment {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "video_id", nullable = false)
+    private Long videoId;
+
+    @Column(name = "comment_text", nullable = false, columnDefinition = "TEXT")
+    private String commentText;
+
+    @Column(name = "is_visible_to_user")
+    private Boolean isVisibleToUser;
+
+    @Column(name = "is_active")
+    private Boolean isActive;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedComment() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getVideoId() { return videoId; }
+    public void setVideoId(Long videoId) { this.videoId = videoId; }
+
+    public String getCommentText() { return commentText; }
+    public void setCommentText(String commentText) { this.commentText = commentText; }
+
+    public Boolean getIsVisibleToUser() { return isVisibleToUser; }
+    public void setIsVisibleToUser(Boolean isVisibleToUser) { this.isVisibleToUser = isVisibleToUser; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
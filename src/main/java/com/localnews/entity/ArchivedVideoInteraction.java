@@ -0,0 +1,71 @@
+package com.localnews.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A like/watch record moved out of {@code user_video_interactions} when its
+ * video was archived by the retention job. Keeps the original id and plain
+ * foreign key values.
+ */
+@Entity
+@Table(name = "user_video_interactions_archive", indexes = {
+    @Index(name = "idx_interactions_archive_video", columnList = "video_id")
+})
+public class ArchivedVideoInteraction {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "video_id", nullable = false)
+    private Long videoId;
+
+    @Column(name = "has_liked")
+    private Boolean hasLiked;
+
+    @Column(name = "has_watched")
+    private Boolean hasWatched;
+
+    @Column(name = "watch_duration")
+    private Integer watchDuration;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedVideoInteraction() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getVideoId() { return videoId; }
+    public void setVideoId(Long videoId) { this.videoId = videoId; }
+
+    public Boolean getHasLiked() { return hasLiked; }
+    public void setHasLiked(Boolean hasLiked) { this.hasLiked = hasLiked; }
+
+    public Boolean getHasWatched() { return hasWatched; }
+    public void setHasWatched(Boolean hasWatched) { this.hasWatched = hasWatched; }
+
+    public Integer getWatchDuration() { return watchDuration; }
+    public void setWatchDuration(Integer watchDuration) { this.watchDuration = watchDuration; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -0,0 +1,68 @@
+package com.localnews.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed per-district counters for the admin dashboard. Rows are keyed
+ * by district id; users and videos without a district are counted under
+ * {@link #NO_DISTRICT}. Maintained by {@code DistrictStatsService}.
+ */
+@Entity
+@Table(name = "district_stats")
+public class DistrictStats {
+
+    public static final long NO_DISTRICT = 0L;
+
+    @Id
+    @Column(name = "district_id")
+    private Long districtId;
+
+    @Column(name = "video_count", nullable = false)
+    private long videoCount;
+
+    @Column(name = "active_video_count", nullable = false)
+    private long activeVideoCount;
+
+    @Column(name = "user_count", nullable = false)
+    private long userCount;
+
+    @Column(name = "verified_user_count", nullable = false)
+    private long verifiedUserCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Filled in from districts when read for the dashboard; not stored here
+    @Transient
+    private String districtName;
+
+    @Transient
+    private boolean districtActive;
+
+    public DistrictStats() {}
+
+    public Long getDistrictId() { return districtId; }
+    public void setDistrictId(Long districtId) { this.districtId = districtId; }
+
+    public long getVideoCount() { return videoCount; }
+    public void setVideoCount(long videoCount) { this.videoCount = videoCount; }
+
+    public long getActiveVideoCount() { return activeVideoCount; }
+    public void setActiveVideoCount(long activeVideoCount) { this.activeVideoCount = activeVideoCount; }
+
+    public long getUserCount() { return userCount; }
+    public void setUserCount(long userCount) { this.userCount = userCount; }
+
+    public long getVerifiedUserCount() { return verifiedUserCount; }
+    public void setVerifiedUserCount(long verifiedUserCount) { this.verifiedUserCount = verifiedUserCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public String getDistrictName() { return districtName; }
+    public void setDistrictName(String districtName) { this.districtName = districtName; }
+
+    public boolean isDistrictActive() { return districtActive; }
+    public void setDistrictActive(boolean districtActive) { this.districtActive = districtActive; }
+}
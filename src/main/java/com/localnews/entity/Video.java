@@ -44,12 +44,20 @@ public class Video {
     @Column(name = "watch_count")
     private Integer watchCount = 0;
 
+    // Visible comments, maintained on write; see CommentCountReconciler for drift repair
+    @Column(name = "comment_count", columnDefinition = "integer default 0")
+    private Integer commentCount = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Set when the retention job archives the video; archived videos are also inactive
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
     // Constructors
     public Video() {}
 
@@ -94,12 +102,18 @@ public class Video {
     public Integer getWatchCount() { return watchCount; }
     public void setWatchCount(Integer watchCount) { this.watchCount = watchCount; }
 
+    public Integer getCommentCount() { return commentCount; }
+    public void setCommentCount(Integer commentCount) { this.commentCount = commentCount; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -5,9 +5,11 @@ import com.localnews.entity.Media;
 import com.localnews.entity.User;
 import com.localnews.entity.Video;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -29,8 +31,11 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Count all comments for a video (for admin)
     Long countByVideo(Video video);
 
-    // Delete all comments by video (for admin video deletion)
-    void deleteByVideo(Video video);
+    // Delete all comments by video (for admin video deletion) - one statement, no entities loaded
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.video = :video")
+    int deleteByVideo(@Param("video") Video video);
 
     // User-based methods
     List<Comment> findByUserOrderByCreatedAtDesc(User user);
@@ -0,0 +1,86 @@
+package com.localnews.repository;
+
+import com.localnews.entity.DistrictStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Counter upserts and the grouped rebuild for {@code district_stats}. Deltas
+ * are applied in place so concurrent events never overwrite each other.
+ */
+@Repository
+public class DistrictStatsJdbcRepository {
+
+    private static final String ADJUST_SQL =
+            "INSERT INTO district_stats " +
+            "(district_id, video_count, active_video_count, user_count, verified_user_count, updated_at) " +
+            "VALUES (?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), now()) " +
+            "ON CONFLICT (district_id) DO UPDATE SET " +
+            "video_count = GREATEST(district_stats.video_count + ?, 0), " +
+            "active_video_count = GREATEST(district_stats.active_video_count + ?, 0), " +
+            "user_count = GREATEST(district_stats.user_count + ?, 0), " +
+            "verified_user_count = GREATEST(district_stats.verified_user_count + ?, 0), " +
+            "updated_at = now()";
+
+    private static final String DELETE_ALL_SQL = "DELETE FROM district_stats";
+
+    // One pass over videos and one over users, grouped by district; every district gets a row
+    private static final String REBUILD_SQL =
+            "INSERT INTO district_stats " +
+            "(district_id, video_count, active_video_count, user_count, verified_user_count, updated_at) " +
+            "SELECT district_id, SUM(videos), SUM(active_videos), SUM(users), SUM(verified_users), now() FROM (" +
+            "  SELECT id AS district_id, 0 AS videos, 0 AS active_videos, 0 AS users, 0 AS verified_users FROM districts" +
+            "  UNION ALL" +
+            "  SELECT COALESCE(district_id, 0), COUNT(*), COUNT(*) FILTER (WHERE is_active = true), 0, 0" +
+            "  FROM videos GROUP BY COALESCE(district_id, 0)" +
+            "  UNION ALL" +
+            "  SELECT COALESCE(district_id, 0), 0, 0, COUNT(*), COUNT(*) FILTER (WHERE is_verified = true)" +
+            "  FROM users GROUP BY COALESCE(district_id, 0)" +
+            ") counts GROUP BY district_id";
+
+    private static final String FIND_ALL_SQL =
+            "SELECT s.district_id, s.video_count, s.active_video_count, s.user_count, s.verified_user_count, " +
+            "s.updated_at, d.name, d.is_active " +
+            "FROM district_stats s LEFT JOIN districts d ON d.id = s.district_id " +
+            "ORDER BY d.name";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void adjust(long districtId, long videos, long activeVideos, long users, long verifiedUsers) {
+        jdbcTemplate.update(ADJUST_SQL, districtId, videos, activeVideos, users, verifiedUsers,
+                videos, activeVideos, users, verifiedUsers);
+    }
+
+    /**
+     * Replaces every row with counts recomputed from videos and users, in one
+     * transaction so readers see either the old rows or the new ones.
+     *
+     * @return the number of rows written
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update(DELETE_ALL_SQL);
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+
+    public List<DistrictStats> findAllWithDistrict() {
+        return jdbcTemplate.query(FIND_ALL_SQL, (rs, rowNum) -> {
+            DistrictStats stats = new DistrictStats();
+            stats.setDistrictId(rs.getLong("district_id"));
+            stats.setVideoCount(rs.getLong("video_count"));
+            stats.setActiveVideoCount(rs.getLong("active_video_count"));
+            stats.setUserCount(rs.getLong("user_count"));
+            stats.setVerifiedUserCount(rs.getLong("verified_user_count"));
+            stats.setUpdatedAt(rs.getTimestamp("updated_at") != null
+                    ? rs.getTimestamp("updated_at").toLocalDateTime() : null);
+            stats.setDistrictName(rs.getString("name"));
+            stats.setDistrictActive(rs.getBoolean("is_active"));
+            return stats;
+        });
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,4 +23,12 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     long countDislikesByMedia(@Param("media") Media media);
 
     void deleteByMediaAndUser(Media media, User user);
+
+    // Rows of [mediaId, type, count] for a whole page of media in one query
+    @Query("SELECT l.media.id, l.type, COUNT(l) FROM Like l WHERE l.media.id IN :mediaIds GROUP BY l.media.id, l.type")
+    List<Object[]> countByMediaIdsGroupedByType(@Param("mediaIds") Collection<Long> mediaIds);
+
+    // Rows of [mediaId, type] for the given user's reactions on a page of media
+    @Query("SELECT l.media.id, l.type FROM Like l WHERE l.user = :user AND l.media.id IN :mediaIds")
+    List<Object[]> findReactionsByUserAndMediaIds(@Param("user") User user, @Param("mediaIds") Collection<Long> mediaIds);
 }
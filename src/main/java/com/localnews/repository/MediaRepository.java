@@ -2,8 +2,15 @@ package com.localnews.repository;
 
 import com.localnews.entity.Media;
 import com.localnews.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -11,4 +18,19 @@ import java.util.List;
 public interface MediaRepository extends JpaRepository<Media, Long> {
     List<Media> findByUserOrderByUploadedAtDesc(User user);
     List<Media> findAllByOrderByUploadedAtDesc();
+
+    // Paged listings with the uploader fetch-joined, so rendering a page never loads users one by one
+    @Query(value = "SELECT m FROM Media m JOIN FETCH m.user WHERE m.user = :user ORDER BY m.uploadedAt DESC, m.id DESC",
+           countQuery = "SELECT COUNT(m) FROM Media m WHERE m.user = :user")
+    Page<Media> findPageByUser(@Param("user") User user, Pageable pageable);
+
+    @Query(value = "SELECT m FROM Media m JOIN FETCH m.user ORDER BY m.uploadedAt DESC, m.id DESC",
+           countQuery = "SELECT COUNT(m) FROM Media m")
+    Page<Media> findPageWithUploader(Pageable pageable);
+    List<Media> findByIdGreaterThanAndFileTypeStartingWithOrderByIdAsc(Long id, String fileTypePrefix, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Media m SET m.thumbnailPath = :thumbnailPath WHERE m.id = :mediaId")
+    int updateThumbnailPath(@Param("mediaId") Long mediaId, @Param("thumbnailPath") String thumbnailPath);
 }
@@ -0,0 +1,78 @@
+package com.localnews.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reference counting for the content-addressed object index. Each operation is
+ * one statement, so concurrent uploads and deletes of the same content need no
+ * application-level locking.
+ */
+@Repository
+public class StoredObjectJdbcRepository {
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE stored_objects SET ref_count = ref_count + 1 WHERE sha256 = ? RETURNING url";
+
+    // A count of zero means a release is deleting the object; it must not be revived
+    private static final String ACQUIRE_URL_SQL =
+            "UPDATE stored_objects SET ref_count = ref_count + 1 WHERE url = ? AND ref_count > 0";
+
+    // Registers a freshly stored object, or takes a reference on the one that won the race
+    private static final String INSERT_OR_ACQUIRE_SQL =
+            "INSERT INTO stored_objects (sha256, url, size, content_type, ref_count, created_at) " +
+            "VALUES (?, ?, ?, ?, 1, now()) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = stored_objects.ref_count + 1 " +
+            "RETURNING url";
+
+    private static final String RELEASE_SQL =
+            "UPDATE stored_objects SET ref_count = ref_count - 1 WHERE url = ? AND ref_count > 0 RETURNING ref_count";
+
+    // Only removes the row if nobody re-acquired it since the count hit zero
+    private static final String DELETE_UNREFERENCED_SQL =
+            "DELETE FROM stored_objects WHERE url = ? AND ref_count = 0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the URL of the object with this hash, now holding one more reference,
+     *         or null if no such object exists
+     */
+    public String acquire(String sha256) {
+        List<String> urls = jdbcTemplate.queryForList(ACQUIRE_SQL, String.class, sha256);
+        return urls.isEmpty() ? null : urls.get(0);
+    }
+
+    /**
+     * @return true if {@code url} is an indexed object and now holds one more reference
+     */
+    public boolean acquireUrl(String url) {
+        return jdbcTemplate.update(ACQUIRE_URL_SQL, url) > 0;
+    }
+
+    /**
+     * @return the URL that now holds the content: {@code url} if this call
+     *         registered it, otherwise the URL of the existing object
+     */
+    public String insertOrAcquire(String sha256, String url, long size, String contentType) {
+        return jdbcTemplate.queryForObject(INSERT_OR_ACQUIRE_SQL, String.class, sha256, url, size, contentType);
+    }
+
+    /**
+     * Drops one reference to the object at {@code url}.
+     *
+     * @return true if that was the last reference and the index row is gone, so
+     *         the stored bytes can be deleted
+     */
+    public boolean release(String url) {
+        List<Integer> remaining = jdbcTemplate.queryForList(RELEASE_SQL, Integer.class, url);
+        if (remaining.isEmpty() || remaining.get(0) > 0) {
+            return false;
+        }
+        return jdbcTemplate.update(DELETE_UNREFERENCED_SQL, url) > 0;
+    }
+}
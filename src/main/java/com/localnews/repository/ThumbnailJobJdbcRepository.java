@@ -0,0 +1,44 @@
+package com.localnews.repository;
+
+import com.localnews.entity.ThumbnailJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Claims thumbnail jobs with {@code FOR UPDATE SKIP LOCKED}, so several workers
+ * (or several app instances) can poll the same table without handing out a job
+ * twice or blocking on each other.
+ */
+@Repository
+public class ThumbnailJobJdbcRepository {
+
+    private static final String CLAIM_NEXT_SQL =
+            "UPDATE thumbnail_jobs SET status = 'RUNNING', attempts = attempts + 1, updated_at = now() " +
+            "WHERE id = (SELECT id FROM thumbnail_jobs WHERE status = 'PENDING' " +
+            "            AND (attempts = 0 OR updated_at < now() - interval '30 seconds') " +
+            "            ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, media_id, source_path, content_type, attempts";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Failed jobs are retried no sooner than 30 seconds after their last attempt.
+     *
+     * @return the oldest pending job, now marked RUNNING, or null if the queue is empty
+     */
+    public ThumbnailJob claimNext() {
+        List<ThumbnailJob> claimed = jdbcTemplate.query(CLAIM_NEXT_SQL, (rs, rowNum) -> {
+            ThumbnailJob job = new ThumbnailJob(rs.getLong("media_id"), rs.getString("source_path"),
+                    rs.getString("content_type"));
+            job.setId(rs.getLong("id"));
+            job.setAttempts(rs.getInt("attempts"));
+            job.setStatus(ThumbnailJob.Status.RUNNING);
+            return job;
+        });
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+}
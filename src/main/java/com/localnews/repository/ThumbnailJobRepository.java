@@ -0,0 +1,28 @@
+package com.localnews.repository;
+
+import com.localnews.entity.ThumbnailJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ThumbnailJobRepository extends JpaRepository<ThumbnailJob, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ThumbnailJob j SET j.status = :status, j.lastError = :error, j.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ThumbnailJob.Status status, @Param("error") String error);
+
+    // Jobs left RUNNING by a worker that died (restart, crash) go back to the queue. Timestamps come from the
+    // database clock, the same one ThumbnailJobJdbcRepository.claimNext stamps them with.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE thumbnail_jobs SET status = 'PENDING', updated_at = now() " +
+            "WHERE status = 'RUNNING' AND updated_at < now() - make_interval(secs => :timeoutSeconds)",
+            nativeQuery = true)
+    int requeueStale(@Param("timeoutSeconds") long timeoutSeconds);
+}
@@ -0,0 +1,26 @@
+package com.localnews.repository;
+
+import com.localnews.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSession.Status status, LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :receivedBytes, s.expiresAt = :expiresAt " +
+           "WHERE s.id = :id AND s.status = :active")
+    int recordProgress(@Param("id") String id, @Param("receivedBytes") long receivedBytes,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("active") UploadSession.Status active);
+}
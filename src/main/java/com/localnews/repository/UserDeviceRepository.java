@@ -2,6 +2,7 @@ package com.localnews.repository;
 
 import com.localnews.entity.UserDevice;
 import com.localnews.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,4 +23,17 @@ public interface UserDeviceRepository extends JpaRepository<UserDevice, Long> {
 
     @Query("SELECT ud FROM UserDevice ud WHERE ud.isActive = true")
     List<UserDevice> findAllActiveDevices();
+
+    // Push fan-out: [deviceId, deviceToken] rows for verified users, paged by device id
+    @Query("SELECT ud.id, ud.deviceToken FROM UserDevice ud JOIN ud.user u " +
+           "WHERE ud.isActive = true AND u.isVerified = true AND u.district.id = :districtId AND ud.id > :afterId " +
+           "ORDER BY ud.id")
+    List<Object[]> findActiveDeviceTokensByDistrict(@Param("districtId") Long districtId,
+                                                    @Param("afterId") Long afterId,
+                                                    Limit limit);
+
+    @Query("SELECT ud.id, ud.deviceToken FROM UserDevice ud JOIN ud.user u " +
+           "WHERE ud.isActive = true AND u.isVerified = true AND ud.id > :afterId " +
+           "ORDER BY ud.id")
+    List<Object[]> findActiveDeviceTokens(@Param("afterId") Long afterId, Limit limit);
 }
@@ -4,10 +4,13 @@ import com.localnews.entity.UserVideoInteraction;
 import com.localnews.entity.User;
 import com.localnews.entity.Video;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -16,6 +19,16 @@ public interface UserVideoInteractionRepository extends JpaRepository<UserVideoI
 
     Optional<UserVideoInteraction> findByUserAndVideo(User user, Video video);
 
+    // Delete all likes/watches of a video (for admin video deletion) - one statement, no entities loaded
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserVideoInteraction uvi WHERE uvi.video = :video")
+    int deleteByVideo(@Param("video") Video video);
+
+    // Get a user's interactions for a page of videos in one round trip
+    @Query("SELECT uvi FROM UserVideoInteraction uvi WHERE uvi.user = :user AND uvi.video.id IN :videoIds")
+    List<UserVideoInteraction> findByUserAndVideoIds(@Param("user") User user, @Param("videoIds") Collection<Long> videoIds);
+
     // Get user's liked videos
     @Query("SELECT uvi FROM UserVideoInteraction uvi WHERE uvi.user = :user AND uvi.hasLiked = true ORDER BY uvi.updatedAt DESC")
     List<UserVideoInteraction> findLikedVideosByUser(@Param("user") User user);
@@ -0,0 +1,125 @@
+package com.localnews.repository;
+
+import com.localnews.config.AuthenticatedUser;
+import com.localnews.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded, short-TTL cache of verified users by mobile number, in front of
+ * {@link UserRepository#findByMobileNumberAndIsVerifiedTrue}. Entries must be
+ * evicted explicitly whenever a user's verification or district changes.
+ */
+@Component
+public class VerifiedUserCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${user.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Map<String, Entry> entries;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter sizeEvictions;
+    private Counter expiredEvictions;
+    private Counter explicitEvictions;
+
+    @PostConstruct
+    void init() {
+        // Access-ordered so the least recently used entry is dropped when full
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        hits = Counter.builder("localnews.user.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("localnews.user.cache.requests").tag("result", "miss").register(meterRegistry);
+        sizeEvictions = Counter.builder("localnews.user.cache.evictions").tag("cause", "size").register(meterRegistry);
+        expiredEvictions = Counter.builder("localnews.user.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        explicitEvictions = Counter.builder("localnews.user.cache.evictions").tag("cause", "explicit").register(meterRegistry);
+        Gauge.builder("localnews.user.cache.size", this, VerifiedUserCache::size).register(meterRegistry);
+    }
+
+    public Optional<AuthenticatedUser> findVerified(String mobileNumber) {
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(mobileNumber);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.increment();
+                    return Optional.of(entry.user);
+                }
+                entries.remove(mobileNumber);
+                expiredEvictions.increment();
+            }
+        }
+
+        misses.increment();
+        Optional<User> user = userRepository.findByMobileNumberAndIsVerifiedTrue(mobileNumber);
+        if (user.isEmpty()) {
+            return Optional.empty();
+        }
+
+        User found = user.get();
+        AuthenticatedUser principal = new AuthenticatedUser(
+                found.getId(),
+                found.getMobileNumber(),
+                found.getDistrict() != null ? found.getDistrict().getId() : null,
+                true);
+
+        synchronized (this) {
+            entries.put(mobileNumber, new Entry(principal, now + ttlSeconds * 1000));
+        }
+        return Optional.of(principal);
+    }
+
+    public void evict(String mobileNumber) {
+        if (mobileNumber == null) {
+            return;
+        }
+        synchronized (this) {
+            if (entries.remove(mobileNumber) != null) {
+                explicitEvictions.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private Entry(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
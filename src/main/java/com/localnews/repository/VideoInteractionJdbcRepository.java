@@ -0,0 +1,104 @@
+package com.localnews.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based SQL for video interaction counters that would otherwise be
+ * read-modify-write cycles through JPA entities.
+ */
+@Repository
+public class VideoInteractionJdbcRepository {
+
+    // Adds the number of users in the batch that had not watched the video before
+    private static final String BUMP_WATCH_COUNT_SQL =
+            "UPDATE videos SET watch_count = COALESCE(watch_count, 0) + ? - " +
+            "(SELECT COUNT(*) FROM user_video_interactions " +
+            " WHERE video_id = ? AND has_watched = true AND user_id = ANY(?)) " +
+            "WHERE id = ?";
+
+    private static final String UPSERT_WATCH_SQL =
+            "INSERT INTO user_video_interactions " +
+            "(user_id, video_id, has_liked, has_watched, watch_duration, created_at, updated_at) " +
+            "SELECT ?, ?, false, true, ?, now(), now() WHERE EXISTS (SELECT 1 FROM videos WHERE id = ?) " +
+            "ON CONFLICT (user_id, video_id) DO UPDATE SET " +
+            "has_watched = true, " +
+            "watch_duration = GREATEST(COALESCE(user_video_interactions.watch_duration, 0), EXCLUDED.watch_duration), " +
+            "updated_at = now()";
+
+    // Inserts a liked row or flips an existing one, returning the resulting state
+    private static final String TOGGLE_LIKE_SQL =
+            "INSERT INTO user_video_interactions " +
+            "(user_id, video_id, has_liked, has_watched, watch_duration, created_at, updated_at) " +
+            "VALUES (?, ?, true, false, 0, now(), now()) " +
+            "ON CONFLICT (user_id, video_id) DO UPDATE SET " +
+            "has_liked = NOT COALESCE(user_video_interactions.has_liked, false), " +
+            "updated_at = now() " +
+            "RETURNING has_liked";
+
+    private static final String ADJUST_LIKE_COUNT_SQL =
+            "UPDATE videos SET like_count = GREATEST(COALESCE(like_count, 0) + ?, 0) WHERE id = ? RETURNING like_count";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Atomically flips the user's like on a video.
+     *
+     * @return true if the video is liked after the toggle
+     */
+    public boolean toggleLike(Long userId, Long videoId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TOGGLE_LIKE_SQL, Boolean.class, userId, videoId));
+    }
+
+    /**
+     * Applies a like delta in place, so concurrent toggles never lose updates.
+     *
+     * @return the like count after the update
+     */
+    public int adjustLikeCount(Long videoId, int delta) {
+        Integer likeCount = jdbcTemplate.queryForObject(ADJUST_LIKE_COUNT_SQL, Integer.class, delta, videoId);
+        return likeCount != null ? likeCount : 0;
+    }
+
+    /**
+     * Applies coalesced watch events: one watch_count bump per video, then one
+     * upsert per (user, video) keeping the longest watch duration. Must run in a
+     * transaction so the count and the interaction rows move together.
+     *
+     * @param watchesByVideo videoId -> (userId -> max watch duration in seconds)
+     */
+    public void applyWatchBatch(Map<Long, Map<Long, Integer>> watchesByVideo) {
+        List<Long> videoIds = new ArrayList<>(watchesByVideo.keySet());
+
+        jdbcTemplate.batchUpdate(BUMP_WATCH_COUNT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Long videoId = videoIds.get(i);
+                Long[] userIds = watchesByVideo.get(videoId).keySet().toArray(new Long[0]);
+                ps.setInt(1, userIds.length);
+                ps.setLong(2, videoId);
+                ps.setArray(3, ps.getConnection().createArrayOf("bigint", userIds));
+                ps.setLong(4, videoId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return videoIds.size();
+            }
+        });
+
+        List<Object[]> upserts = new ArrayList<>();
+        watchesByVideo.forEach((videoId, durations) -> durations.forEach((userId, duration) ->
+                upserts.add(new Object[]{userId, videoId, duration, videoId})));
+        jdbcTemplate.batchUpdate(UPSERT_WATCH_SQL, upserts);
+    }
+}
@@ -1,13 +1,20 @@
 package com.localnews.repository;
 
+import com.localnews.dto.AdminVideoRow;
 import com.localnews.entity.Video;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,13 +23,62 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
     // Find all videos ordered by creation date (newest first)
     List<Video> findAllByOrderByCreatedAtDesc();
 
-    // Find videos by district and active status, ordered by creation date
+    // Admin listing: projected rows with the district name joined in SQL; null filters are ignored
+    @Query(value = "SELECT new com.localnews.dto.AdminVideoRow(v.id, v.title, v.description, v.videoUrl, " +
+                   "v.thumbnailUrl, v.duration, v.watchCount, v.isActive, v.createdAt, d.id, d.name) " +
+                   "FROM Video v LEFT JOIN v.district d " +
+                   "WHERE (:districtId IS NULL OR d.id = :districtId) " +
+                   "AND (:active IS NULL OR v.isActive = :active) " +
+                   "AND (:from IS NULL OR v.createdAt >= :from) " +
+                   "AND (:to IS NULL OR v.createdAt < :to) " +
+                   "ORDER BY v.createdAt DESC, v.id DESC",
+           countQuery = "SELECT COUNT(v) FROM Video v " +
+                        "WHERE (:districtId IS NULL OR v.district.id = :districtId) " +
+                        "AND (:active IS NULL OR v.isActive = :active) " +
+                        "AND (:from IS NULL OR v.createdAt >= :from) " +
+                        "AND (:to IS NULL OR v.createdAt < :to)")
+    Page<AdminVideoRow> findAdminRows(@Param("districtId") Long districtId,
+                                      @Param("active") Boolean active,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+
+    // Find videos by district and active status, ordered by creation date (district fetched in the same query)
+    @EntityGraph(attributePaths = "district")
     Page<Video> findByDistrictIdAndIsActiveTrueOrderByCreatedAtDesc(Long districtId, Pageable pageable);
 
-    // Find all active videos ordered by creation date
+    // Find all active videos ordered by creation date (district fetched in the same query)
+    @EntityGraph(attributePaths = "district")
     @Query("SELECT v FROM Video v WHERE v.isActive = true ORDER BY v.createdAt DESC")
     Page<Video> findAllActiveVideosOrderByCreatedAtDesc(Pageable pageable);
 
+    // Keyset feed pages ordered by (createdAt, id) descending - no OFFSET and no COUNT
+    @EntityGraph(attributePaths = "district")
+    @Query("SELECT v FROM Video v WHERE v.district.id = :districtId AND v.isActive = true " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findDistrictFeedFirst(@Param("districtId") Long districtId, Limit limit);
+
+    @EntityGraph(attributePaths = "district")
+    @Query("SELECT v FROM Video v WHERE v.district.id = :districtId AND v.isActive = true " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findDistrictFeedAfter(@Param("districtId") Long districtId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Limit limit);
+
+    @EntityGraph(attributePaths = "district")
+    @Query("SELECT v FROM Video v WHERE v.isActive = true ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findActiveFeedFirst(Limit limit);
+
+    @EntityGraph(attributePaths = "district")
+    @Query("SELECT v FROM Video v WHERE v.isActive = true " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findActiveFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
     // Count videos by district and active status
     long countByDistrictIdAndIsActiveTrue(Long districtId);
 
@@ -41,4 +97,40 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
 
     @Query("SELECT v FROM Video v WHERE v.isActive = true AND v.district.id = :districtId ORDER BY v.createdAt DESC")
     List<Video> findActiveVideosByDistrict(@Param("districtId") Long districtId);
+
+    // Filled in by the ingest pipeline; an admin-supplied thumbnail is kept
+    @Transactional
+    @Modifying
+    @Query("UPDATE Video v SET v.duration = COALESCE(:duration, v.duration), " +
+           "v.thumbnailUrl = COALESCE(v.thumbnailUrl, :thumbnailUrl) WHERE v.id = :videoId")
+    int updateIngestMetadata(@Param("videoId") Long videoId, @Param("duration") Integer duration,
+                             @Param("thumbnailUrl") String thumbnailUrl);
+
+    // Denormalized comment counter - atomic in-place adjustment
+    @Transactional
+    @Modifying
+    @Query("UPDATE Video v SET v.commentCount = COALESCE(v.commentCount, 0) + :delta WHERE v.id = :videoId")
+    int adjustCommentCount(@Param("videoId") Long videoId, @Param("delta") int delta);
+
+    @Query("SELECT MAX(v.id) FROM Video v")
+    Long findMaxId();
+
+    // Locks a reconcile chunk so adjustCommentCount waits for the repair instead of being overwritten by it
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT id FROM videos WHERE id BETWEEN :fromId AND :toId ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Repair comment counters that drifted from the comments table, one id range at a time.
+    // Call after lockIdRange in the same transaction: under READ COMMITTED the counts are read
+    // from this statement's snapshot, which then already includes every committed increment.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE videos v SET comment_count = c.cnt " +
+            "FROM (SELECT v2.id, COUNT(c2.id) AS cnt FROM videos v2 " +
+            "      LEFT JOIN comments c2 ON c2.video_id = v2.id AND c2.is_visible_to_user = true " +
+            "      WHERE v2.id BETWEEN :fromId AND :toId GROUP BY v2.id) c " +
+            "WHERE v.id = c.id AND v.comment_count IS DISTINCT FROM c.cnt",
+            nativeQuery = true)
+    int reconcileCommentCounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
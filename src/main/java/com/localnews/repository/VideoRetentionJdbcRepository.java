@@ -0,0 +1,105 @@
+package com.localnews.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based statements for the video retention job. Every statement touches at
+ * most {@code limit} rows and commits on its own, and rows already locked by
+ * live traffic are skipped rather than waited for, so the job never holds
+ * long locks on {@code videos}, {@code comments} or
+ * {@code user_video_interactions}. Each move is a single DELETE ... RETURNING
+ * feeding an INSERT, so a row is never both live and archived.
+ */
+@Repository
+public class VideoRetentionJdbcRepository {
+
+    private static final String ARCHIVE_EXPIRED_SQL =
+            "WITH expired AS (" +
+            "  SELECT id, is_active FROM videos WHERE archived_at IS NULL AND created_at < ? " +
+            "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE videos v SET is_active = false, archived_at = now(), updated_at = now() " +
+            "FROM expired e WHERE v.id = e.id " +
+            "RETURNING v.id, v.district_id, v.video_url, v.thumbnail_url, e.is_active AS was_active";
+
+    private static final String MOVE_COMMENTS_SQL =
+            "WITH moved AS (" +
+            "  DELETE FROM comments WHERE id IN (" +
+            "    SELECT c.id FROM comments c JOIN videos v ON v.id = c.video_id " +
+            "    WHERE v.archived_at IS NOT NULL LIMIT ? FOR UPDATE OF c SKIP LOCKED) " +
+            "  RETURNING id, user_id, video_id, comment_text, is_visible_to_user, is_active, created_at) " +
+            "INSERT INTO comments_archive " +
+            "(id, user_id, video_id, comment_text, is_visible_to_user, is_active, created_at, archived_at) " +
+            "SELECT id, user_id, video_id, comment_text, is_visible_to_user, is_active, created_at, now() FROM moved " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String MOVE_INTERACTIONS_SQL =
+            "WITH moved AS (" +
+            "  DELETE FROM user_video_interactions WHERE id IN (" +
+            "    SELECT i.id FROM user_video_interactions i JOIN videos v ON v.id = i.video_id " +
+            "    WHERE v.archived_at IS NOT NULL LIMIT ? FOR UPDATE OF i SKIP LOCKED) " +
+            "  RETURNING id, user_id, video_id, has_liked, has_watched, watch_duration, created_at, updated_at) " +
+            "INSERT INTO user_video_interactions_archive " +
+            "(id, user_id, video_id, has_liked, has_watched, watch_duration, created_at, updated_at, archived_at) " +
+            "SELECT id, user_id, video_id, has_liked, has_watched, watch_duration, created_at, updated_at, now() " +
+            "FROM moved ON CONFLICT (id) DO NOTHING";
+
+    public static class ArchivedVideo {
+        private final Long id;
+        private final Long districtId;
+        private final String videoUrl;
+        private final String thumbnailUrl;
+        private final boolean wasActive;
+
+        ArchivedVideo(Long id, Long districtId, String videoUrl, String thumbnailUrl, boolean wasActive) {
+            this.id = id;
+            this.districtId = districtId;
+            this.videoUrl = videoUrl;
+            this.thumbnailUrl = thumbnailUrl;
+            this.wasActive = wasActive;
+        }
+
+        public Long getId() { return id; }
+        public Long getDistrictId() { return districtId; }
+        public String getVideoUrl() { return videoUrl; }
+        public String getThumbnailUrl() { return thumbnailUrl; }
+        public boolean wasActive() { return wasActive; }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Soft-deletes up to {@code limit} videos created before {@code cutoff}:
+     * they are deactivated and stamped with {@code archived_at}.
+     *
+     * @return the videos archived by this call
+     */
+    public List<ArchivedVideo> archiveExpired(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(ARCHIVE_EXPIRED_SQL, (rs, rowNum) -> new ArchivedVideo(
+                rs.getLong("id"),
+                rs.getObject("district_id") != null ? rs.getLong("district_id") : null,
+                rs.getString("video_url"),
+                rs.getString("thumbnail_url"),
+                rs.getBoolean("was_active")), Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * @return the number of comments of archived videos moved by this call
+     */
+    public int moveCommentsOfArchivedVideos(int limit) {
+        return jdbcTemplate.update(MOVE_COMMENTS_SQL, limit);
+    }
+
+    /**
+     * @return the number of interactions with archived videos moved by this call
+     */
+    public int moveInteractionsOfArchivedVideos(int limit) {
+        return jdbcTemplate.update(MOVE_INTERACTIONS_SQL, limit);
+    }
+}
@@ -7,14 +7,20 @@ import com.localnews.entity.District;
 import com.localnews.entity.User;
 import com.localnews.repository.DistrictRepository;
 import com.localnews.repository.UserRepository;
+import com.localnews.repository.VerifiedUserCache;
+import com.localnews.config.AuthenticatedUser;
 import com.localnews.config.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 public class AuthService {
@@ -31,26 +37,40 @@ public class AuthService {
     @Autowired
     private SmsService smsService;
 
-    private final Random random = new Random();
+    @Autowired
+    private VerifiedUserCache verifiedUserCache;
 
-    @Transactional
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Value("${otp.ttl-seconds:600}")
+    private long otpTtlSeconds;
+
+    @Value("${otp.max-attempts:5}")
+    private int otpMaxAttempts;
+
+    @Value("${otp.accept-any-code:false}")
+    private boolean acceptAnyCode;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Generates an OTP and texts it. Nothing is written to {@code users}: the
+     * code lives in the {@link OtpStore} until it is verified or expires.
+     * Callers must apply {@link OtpRateLimiter} first.
+     */
     public AuthResponse sendOtp(SendOtpRequest request) {
         try {
             String mobileNumber = request.getMobileNumber();
 
             // Generate 6-digit OTP
             String otp = String.format("%06d", random.nextInt(1000000));
-            LocalDateTime otpExpiry = LocalDateTime.now().plusMinutes(10); // 10 minutes validity
-
-            // Find or create user
-            User user = userRepository.findByMobileNumber(mobileNumber)
-                    .orElse(new User());
-
-            user.setMobileNumber(mobileNumber);
-            user.setOtp(otp);
-            user.setOtpExpiry(otpExpiry);
-
-            userRepository.save(user);
+            if (!otpStore.put(mobileNumber, otp, Instant.now().plusSeconds(otpTtlSeconds))) {
+                return new AuthResponse(false, "Too many pending OTP requests. Please try again shortly.");
+            }
 
             // Send OTP via SMS (implement based on your SMS provider)
             boolean smsSent = smsService.sendOtp(mobileNumber, otp);
@@ -66,6 +86,10 @@ public class AuthService {
         }
     }
 
+    /**
+     * Checks the OTP and only then creates or updates the user, so users are
+     * persisted once they have proven they own the number.
+     */
     @Transactional
     public AuthResponse verifyOtp(VerifyOtpRequest request) {
         try {
@@ -73,25 +97,24 @@ public class AuthService {
             String otp = request.getOtp();
             Long districtId = request.getDistrictId();
 
-            // Find user by mobile number
-            Optional<User> userOpt = userRepository.findByMobileNumber(mobileNumber);
-
-            if (userOpt.isEmpty()) {
-                return new AuthResponse(false, "No OTP request found for this mobile number");
-            }
-
-            User user = userOpt.get();
-
-            // For testing - accept any 6-digit OTP
-            if (otp == null || otp.length() != 6 || !otp.matches("\\d{6}")) {
+            if (otp == null || !otp.matches("\\d{6}")) {
                 return new AuthResponse(false, "Please enter a valid 6-digit OTP");
             }
 
-            // In production, uncomment this for actual OTP verification:
-            // if (!otp.equals(user.getOtp()) || user.getOtpExpiry() == null ||
-            //     user.getOtpExpiry().isBefore(LocalDateTime.now())) {
-            //     return new AuthResponse(false, "Invalid or expired OTP");
-            // }
+            // Development switch: skip the code check entirely (never enable in production)
+            if (!acceptAnyCode) {
+                OtpStore.Result result = otpStore.verify(mobileNumber, otp, otpMaxAttempts);
+                switch (result) {
+                    case VALID:
+                        break;
+                    case INVALID:
+                        return new AuthResponse(false, "Invalid OTP");
+                    case TOO_MANY_ATTEMPTS:
+                        return new AuthResponse(false, "Too many incorrect attempts. Please request a new OTP.");
+                    default:
+                        return new AuthResponse(false, "OTP expired or not requested. Please request a new OTP.");
+                }
+            }
 
             // Verify district exists
             Optional<District> districtOpt = districtRepository.findById(districtId);
@@ -101,16 +124,31 @@ public class AuthService {
 
             District district = districtOpt.get();
 
-            // Update user verification status and district
+            // Find or create the user now that the number is verified
+            Optional<User> userOpt = userRepository.findByMobileNumber(mobileNumber);
+            User user = userOpt.orElseGet(User::new);
+            Long previousDistrictId = user.getDistrict() != null ? user.getDistrict().getId() : null;
+            boolean wasVerified = Boolean.TRUE.equals(user.getIsVerified());
+
+            user.setMobileNumber(mobileNumber);
             user.setIsVerified(true);
             user.setDistrict(district);
-            user.setOtp(null); // Clear OTP after successful verification
+            user.setOtp(null);
             user.setOtpExpiry(null);
 
             userRepository.save(user);
+            verifiedUserCache.evict(user.getMobileNumber());
+            if (userOpt.isPresent()) {
+                districtStatsService.userChanged(previousDistrictId, wasVerified, district, true);
+            } else {
+                districtStatsService.userCreated(district, true);
+            }
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(user.getMobileNumber());
+            // Generate JWT token carrying the identifiers needed to serve requests without a user lookup
+            String token = jwtUtil.generateToken(user.getMobileNumber(), Map.of(
+                    JwtUtil.CLAIM_USER_ID, user.getId(),
+                    JwtUtil.CLAIM_DISTRICT_ID, district.getId(),
+                    JwtUtil.CLAIM_VERIFIED, true));
 
             return new AuthResponse(token, user.getId(), user.getMobileNumber(), district.getName());
 
@@ -119,6 +157,19 @@ public class AuthService {
         }
     }
 
+    /**
+     * Returns the calling user. When the request was authenticated from token
+     * claims this is a detached reference built without touching the database;
+     * otherwise the user is looked up by the token's subject.
+     */
+    public User resolveUser(String token) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.toUser();
+        }
+        return getUserFromToken(token);
+    }
+
     public User getUserFromToken(String token) {
         try {
             String mobileNumber = jwtUtil.extractUsername(token);
@@ -128,6 +179,17 @@ public class AuthService {
         }
     }
 
+    /**
+     * Drops server-side state held for the token's user.
+     */
+    public void logout(String token) {
+        try {
+            verifiedUserCache.evict(jwtUtil.extractUsername(token));
+        } catch (Exception e) {
+            // Invalid or expired token - nothing cached worth dropping
+        }
+    }
+
     public boolean validateToken(String token) {
         try {
             String mobileNumber = jwtUtil.extractUsername(token);
@@ -0,0 +1,71 @@
+package com.localnews.service;
+
+import com.localnews.repository.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically repairs {@code videos.comment_count} against the comments table.
+ * Runs in id-range chunks so each statement only touches a bounded set of rows;
+ * each chunk's rows are locked before they are counted, so comments added
+ * meanwhile are never lost.
+ * Also runs once at startup, which backfills the column on existing videos
+ * the first time it is created.
+ */
+@Service
+public class CommentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${video.comment-count.reconcile-chunk:1000}")
+    private long chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${video.comment-count.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        try {
+            Long maxId = videoRepository.findMaxId();
+            if (maxId == null) {
+                return;
+            }
+
+            int repaired = 0;
+            for (long fromId = 1; fromId <= maxId; fromId += chunkSize) {
+                repaired += reconcileChunk(fromId, fromId + chunkSize - 1);
+            }
+
+            if (repaired > 0) {
+                logger.warn("Comment count reconciliation repaired {} videos", repaired);
+            } else {
+                logger.debug("Comment count reconciliation found no drift");
+            }
+        } catch (Exception e) {
+            logger.error("Comment count reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private int reconcileChunk(long fromId, long toId) {
+        Integer repaired = transactionTemplate.execute(status -> {
+            videoRepository.lockIdRange(fromId, toId);
+            return videoRepository.reconcileCommentCounts(fromId, toId);
+        });
+        return repaired != null ? repaired : 0;
+    }
+}
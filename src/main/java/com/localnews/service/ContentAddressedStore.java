@@ -0,0 +1,110 @@
+package com.localnews.service;
+
+import com.localnews.repository.StoredObjectJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Deduplicates uploads by content. Every stored file is indexed by its SHA-256
+ * in {@code stored_objects} with a reference count; an upload whose hash is
+ * already known reuses the existing URL instead of keeping a second copy, and
+ * the bytes are only deleted once the last reference is released. Files stay
+ * UUID-named, so a new copy of recently deleted content never collides with a
+ * delete still in progress.
+ */
+@Service
+public class ContentAddressedStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    private static final String LOCAL_PREFIX = "/uploads/";
+
+    @Value("${upload.dir}")
+    private String uploadDir;
+
+    @Autowired
+    private StoredObjectJdbcRepository storedObjectRepository;
+
+    @Autowired(required = false)
+    private S3FileStorageService s3FileStorageService;
+
+    /**
+     * Takes a reference on already-stored content, so the caller can skip writing it.
+     *
+     * @return the existing URL, or null if this content has not been stored yet
+     */
+    public String acquireExisting(String sha256) {
+        return storedObjectRepository.acquire(sha256);
+    }
+
+    /**
+     * Takes a reference on a URL the caller did not store itself, such as a
+     * video URL typed in by an admin, so a later {@link #release} by that owner
+     * is balanced. URLs that are not indexed are ignored, as release ignores them.
+     *
+     * @return true if a reference was taken
+     */
+    public boolean acquireUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        return storedObjectRepository.acquireUrl(url);
+    }
+
+    /**
+     * Indexes a file the caller has just stored. If the same content was stored
+     * in the meantime (or before, when the hash was only known after writing),
+     * the new copy is deleted and the existing URL returned.
+     */
+    public String adopt(StoredFile stored, String contentType) {
+        String url = storedObjectRepository.insertOrAcquire(stored.getSha256(), stored.getUrl(),
+                stored.getSize(), contentType);
+        if (!url.equals(stored.getUrl())) {
+            deleteBytes(stored.getUrl());
+        }
+        return url;
+    }
+
+    /**
+     * Drops a reference held by a deleted video or media row. Files that were
+     * stored before the index existed are not tracked and are left alone.
+     */
+    public void release(String url) {
+        if (url == null || url.isBlank()) {
+            return;
+        }
+        if (storedObjectRepository.release(url)) {
+            deleteBytes(url);
+        }
+    }
+
+    private void deleteBytes(String url) {
+        try {
+            Path local = localPath(url);
+            if (local != null) {
+                Files.deleteIfExists(local);
+            } else if (s3FileStorageService != null) {
+                s3FileStorageService.deleteFile(url);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete stored object {}: {}", url, e.getMessage());
+        }
+    }
+
+    private Path localPath(String url) {
+        if (!url.startsWith(LOCAL_PREFIX)) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(url.substring(LOCAL_PREFIX.length())).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+}
@@ -0,0 +1,157 @@
+package com.localnews.service;
+
+import com.localnews.dto.FeedCursor;
+import com.localnews.dto.VideoDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process cache of the head of each district's feed. Most users of a
+ * district request the same first pages, so the newest videos are kept as
+ * shared summaries and per-user fields are overlaid by the caller at read time.
+ *
+ * Snapshots expire after a short TTL (counters may trail by that much) and are
+ * dropped whenever a video is added to or removed from a district.
+ */
+@Component
+public class DistrictFeedCache {
+
+    // Key for users without a district, who see every active video
+    private static final long ALL_DISTRICTS = 0L;
+
+    @Value("${feed.cache.size:100}")
+    private int cachedVideosPerDistrict;
+
+    @Value("${feed.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, Object> loadLocks = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so loads that raced with one are not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached head of the feed, loading it with {@code loader} when
+     * missing or expired. The loader receives the maximum number of videos to load.
+     */
+    public Snapshot get(Long districtId, Function<Integer, Snapshot> loader) {
+        long key = keyFor(districtId);
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && !snapshot.isExpired()) {
+            return snapshot;
+        }
+
+        // One load per district at a time; other readers wait for its result
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            snapshot = snapshots.get(key);
+            if (snapshot != null && !snapshot.isExpired()) {
+                return snapshot;
+            }
+
+            long loadGeneration = generation.get();
+            snapshot = loader.apply(cachedVideosPerDistrict);
+            snapshot.expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+            if (generation.get() == loadGeneration) {
+                snapshots.put(key, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Drops the cached feed of a district (and the all-districts feed, which
+     * contains it) after a video was added, removed or deactivated.
+     */
+    public void invalidateDistrict(Long districtId) {
+        generation.incrementAndGet();
+        snapshots.remove(keyFor(districtId));
+        snapshots.remove(ALL_DISTRICTS);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+
+    public int getCachedVideosPerDistrict() {
+        return cachedVideosPerDistrict;
+    }
+
+    private long keyFor(Long districtId) {
+        return districtId != null ? districtId : ALL_DISTRICTS;
+    }
+
+    /**
+     * Immutable head of a feed. Entries are copied on the way out so callers can
+     * overlay per-user fields without touching the shared summaries.
+     */
+    public static class Snapshot {
+
+        private final List<VideoDto> videos;
+        private final long totalElements;
+        private volatile long expiresAt;
+
+        public Snapshot(List<VideoDto> videos, long totalElements) {
+            this.videos = Collections.unmodifiableList(new ArrayList<>(videos));
+            this.totalElements = totalElements;
+        }
+
+        public long getTotalElements() {
+            return totalElements;
+        }
+
+        /**
+         * @return copies of {@code count} videos starting at {@code offset}, or
+         *         null if that range is not fully covered by this snapshot
+         */
+        public List<VideoDto> slice(int offset, int count) {
+            if (offset < 0 || !covers(offset + count)) {
+                return null;
+            }
+            return copies(offset, Math.min(offset + count, videos.size()));
+        }
+
+        /**
+         * @return copies of up to {@code count} videos after the cursor position,
+         *         or null if the snapshot cannot answer for that cursor
+         */
+        public List<VideoDto> after(FeedCursor cursor, int count) {
+            if (cursor == null) {
+                return slice(0, count);
+            }
+            for (int i = 0; i < videos.size(); i++) {
+                VideoDto video = videos.get(i);
+                if (video.getId().equals(cursor.getId()) && cursor.getCreatedAt().equals(video.getCreatedAt())) {
+                    return slice(i + 1, count);
+                }
+            }
+            return null;
+        }
+
+        // True when the range ends inside the snapshot or the snapshot holds the whole feed
+        private boolean covers(int end) {
+            return end <= videos.size() || videos.size() >= totalElements;
+        }
+
+        private List<VideoDto> copies(int from, int to) {
+            List<VideoDto> result = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                result.add(new VideoDto(videos.get(i)));
+            }
+            return result;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.localnews.service;
+
+import com.localnews.entity.District;
+import com.localnews.entity.DistrictStats;
+import com.localnews.entity.Video;
+import com.localnews.repository.DistrictStatsJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Keeps {@code district_stats} current for the admin dashboard. Video and user
+ * lifecycle events apply small deltas as they happen; a grouped rebuild from
+ * the base tables runs at startup and nightly to correct any drift (bulk
+ * statements that bypass the events, failures between a save and its delta).
+ *
+ * <p>Inside a transaction a delta is applied after commit, so rolled-back
+ * changes are never counted and a failed counter update cannot abort the
+ * caller's transaction. Delta failures are logged and swallowed: the counters
+ * are derived data and must never fail the request that changed the rows.
+ */
+@Service
+public class DistrictStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistrictStatsService.class);
+
+    @Autowired
+    private DistrictStatsJdbcRepository districtStatsJdbcRepository;
+
+    public void videoAdded(Video video) {
+        adjust(districtId(video.getDistrict()), 1, Boolean.TRUE.equals(video.getIsActive()) ? 1 : 0, 0, 0);
+    }
+
+    public void videoRemoved(Video video) {
+        adjust(districtId(video.getDistrict()), -1, Boolean.TRUE.equals(video.getIsActive()) ? -1 : 0, 0, 0);
+    }
+
+    // Archived videos stay in the videos table but no longer count as active
+    public void videoArchived(Long districtId, boolean wasActive) {
+        if (wasActive) {
+            adjust(districtId != null ? districtId : DistrictStats.NO_DISTRICT, 0, -1, 0, 0);
+        }
+    }
+
+    public void userCreated(District district, boolean verified) {
+        adjust(districtId(district), 0, 0, 1, verified ? 1 : 0);
+    }
+
+    /**
+     * Moves a user between districts and/or verification states. Pass the
+     * values from before the change; a no-op when nothing moved.
+     */
+    public void userChanged(Long previousDistrictId, boolean wasVerified, District district, boolean verified) {
+        long from = previousDistrictId != null ? previousDistrictId : DistrictStats.NO_DISTRICT;
+        long to = districtId(district);
+        if (from == to && wasVerified == verified) {
+            return;
+        }
+        adjust(from, 0, 0, -1, wasVerified ? -1 : 0);
+        adjust(to, 0, 0, 1, verified ? 1 : 0);
+    }
+
+    /**
+     * @return one row per district plus the {@link DistrictStats#NO_DISTRICT} row,
+     *         rebuilding first if the table has never been populated
+     */
+    public List<DistrictStats> getAll() {
+        List<DistrictStats> stats = districtStatsJdbcRepository.findAllWithDistrict();
+        if (stats.isEmpty()) {
+            rebuild();
+            stats = districtStatsJdbcRepository.findAllWithDistrict();
+        }
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${admin.stats.rebuild-cron:0 45 3 * * *}")
+    public void rebuild() {
+        try {
+            int rows = districtStatsJdbcRepository.rebuild();
+            logger.info("Rebuilt district stats ({} rows)", rows);
+        } catch (Exception e) {
+            logger.error("District stats rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private void adjust(long districtId, long videos, long activeVideos, long users, long verifiedUsers) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyDelta(districtId, videos, activeVideos, users, verifiedUsers);
+                }
+            });
+        } else {
+            applyDelta(districtId, videos, activeVideos, users, verifiedUsers);
+        }
+    }
+
+    private void applyDelta(long districtId, long videos, long activeVideos, long users, long verifiedUsers) {
+        try {
+            districtStatsJdbcRepository.adjust(districtId, videos, activeVideos, users, verifiedUsers);
+        } catch (Exception e) {
+            logger.warn("Failed to update district stats for district {}: {}", districtId, e.getMessage());
+        }
+    }
+
+    private static long districtId(District district) {
+        return district != null && district.getId() != null ? district.getId() : DistrictStats.NO_DISTRICT;
+    }
+}
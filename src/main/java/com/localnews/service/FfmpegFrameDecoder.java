@@ -0,0 +1,61 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes the first keyframe with an external {@code ffmpeg} binary. Seeks to
+ * the keyframe time found by {@link Mp4BoxParser}, so ffmpeg decodes a single
+ * frame instead of scanning from the start.
+ */
+@Component
+@ConditionalOnProperty(name = "video.poster.decoder", havingValue = "ffmpeg")
+public class FfmpegFrameDecoder implements VideoFrameDecoder {
+
+    @Value("${video.poster.ffmpeg-path:ffmpeg}")
+    private String ffmpegPath;
+
+    @Value("${video.poster.ffmpeg-timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Override
+    public BufferedImage decodePosterFrame(Path video, Mp4BoxParser.Mp4Info info) throws IOException {
+        String seek = String.format(Locale.ROOT, "%.3f", info.getKeyframeTimeMillis() / 1000.0);
+        Process process = new ProcessBuilder(List.of(
+                ffmpegPath, "-v", "error", "-ss", seek, "-i", video.toAbsolutePath().toString(),
+                "-frames:v", "1", "-f", "image2pipe", "-vcodec", "png", "-"))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        // Kill a hung ffmpeg so the blocking read below returns
+        CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS).execute(process::destroyForcibly);
+
+        try {
+            byte[] png;
+            try (InputStream out = process.getInputStream()) {
+                png = out.readAllBytes();
+            }
+            if (process.waitFor() != 0 || png.length == 0) {
+                return null;
+            }
+            return ImageIO.read(new ByteArrayInputStream(png));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding poster frame", e);
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+}
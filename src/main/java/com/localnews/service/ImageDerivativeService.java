@@ -0,0 +1,235 @@
+package com.localnews.service;
+
+import com.localnews.entity.Media;
+import com.localnews.repository.MediaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Resized variants of uploaded images, generated on first request and kept
+ * under {@code upload.dir/derivatives/{width}/}. Requested widths are snapped
+ * to a fixed whitelist so the cache cannot be flooded with arbitrary sizes.
+ * The variant directory is an LRU bounded by {@code derivative.cache.max-bytes};
+ * concurrent requests for a variant that is still being generated wait for the
+ * same result instead of decoding the original again.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final long GENERATION_TIMEOUT_SECONDS = 30;
+
+    @Value("${upload.dir}")
+    private String uploadDir;
+
+    @Value("${derivative.widths:160,320,480,720,1080}")
+    private int[] widths;
+
+    @Value("${derivative.cache.max-bytes:536870912}")
+    private long maxCacheBytes;
+
+    @Value("${derivative.backfill.enabled:false}")
+    private boolean backfillEnabled;
+
+    @Value("${derivative.backfill.widths:320,480}")
+    private int[] backfillWidths;
+
+    @Value("${derivative.backfill.batch-size:50}")
+    private int backfillBatchSize;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    private Path derivativeRoot;
+
+    // Access-ordered: the first entry is the least recently served variant
+    private final LinkedHashMap<Path, Long> cacheIndex = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile long backfillCursor;
+
+    @PostConstruct
+    void init() throws IOException {
+        widths = Arrays.stream(widths).filter(w -> w > 0).sorted().distinct().toArray();
+        derivativeRoot = Paths.get(uploadDir, "derivatives").toAbsolutePath().normalize();
+        Files.createDirectories(derivativeRoot);
+
+        // Rebuild the LRU from disk, oldest first, so a restart keeps the cap
+        try (Stream<Path> files = Files.walk(derivativeRoot)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .map(path -> {
+                        try {
+                            return Map.entry(path, Files.readAttributes(path, BasicFileAttributes.class));
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(entry -> entry != null)
+                    .sorted(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()))
+                    .forEach(entry -> {
+                        cacheIndex.put(entry.getKey(), entry.getValue().size());
+                        cacheBytes += entry.getValue().size();
+                    });
+        }
+        synchronized (cacheIndex) {
+            evictOverCap();
+        }
+    }
+
+    /**
+     * Returns the file to serve for {@code original} at roughly {@code requestedWidth}
+     * pixels wide: a cached or freshly generated variant, or the original itself
+     * when it is not an image, is already small enough, or generation fails.
+     */
+    public Path resolve(Path original, int requestedWidth) {
+        if (widths.length == 0 || requestedWidth <= 0 || !Files.isRegularFile(original)) {
+            return original;
+        }
+        int width = snapWidth(requestedWidth);
+        Path variant = derivativeRoot.resolve(Integer.toString(width)).resolve(original.getFileName().toString());
+
+        synchronized (cacheIndex) {
+            if (cacheIndex.get(variant) != null && Files.exists(variant)) {
+                return variant;
+            }
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(variant, mine);
+        if (running != null) {
+            try {
+                return running.get(GENERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return original;
+            } catch (ExecutionException | TimeoutException e) {
+                return original;
+            }
+        }
+
+        Path result = original;
+        try {
+            result = generate(original, variant, width);
+        } catch (Exception e) {
+            logger.warn("Failed to generate {}px variant of {}: {}", width, original.getFileName(), e.getMessage());
+        } finally {
+            mine.complete(result);
+            inFlight.remove(variant, mine);
+        }
+        return result;
+    }
+
+    int snapWidth(int requestedWidth) {
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    private Path generate(Path original, Path variant, int width) throws IOException {
+        int[] dimensions = ImageThumbnails.readDimensions(original);
+        if (dimensions == null || dimensions[0] <= width) {
+            return original;
+        }
+
+        int height = (int) Math.max(1, Math.round((double) dimensions[1] * width / dimensions[0]));
+        BufferedImage decoded = ImageThumbnails.readSubsampled(original, width, height);
+        if (decoded == null) {
+            return original;
+        }
+        BufferedImage resized = ImageThumbnails.fitWithin(decoded, width, Integer.MAX_VALUE);
+
+        Files.createDirectories(variant.getParent());
+        Path tmp = variant.resolveSibling(variant.getFileName() + ".tmp");
+        String format = ImageThumbnails.imageFormat(variant.getFileName().toString());
+        if (!ImageIO.write(resized, format, tmp.toFile())) {
+            Files.deleteIfExists(tmp);
+            return original;
+        }
+        Files.move(tmp, variant, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long size = Files.size(variant);
+        synchronized (cacheIndex) {
+            Long previous = cacheIndex.put(variant, size);
+            cacheBytes += size - (previous != null ? previous : 0);
+            evictOverCap();
+        }
+        return variant;
+    }
+
+    private void evictOverCap() {
+        Iterator<Map.Entry<Path, Long>> it = cacheIndex.entrySet().iterator();
+        while (cacheBytes > maxCacheBytes && it.hasNext()) {
+            Map.Entry<Path, Long> eldest = it.next();
+            it.remove();
+            cacheBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException e) {
+                logger.warn("Failed to evict derivative {}: {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lazy backfill for media uploaded before derivatives existed: walks the
+     * media table a small batch at a time and pre-generates the common widths.
+     * Off by default; variants are generated on demand either way.
+     */
+    @Scheduled(fixedDelayString = "${derivative.backfill.interval-ms:60000}")
+    public void backfill() {
+        if (!backfillEnabled) {
+            return;
+        }
+
+        List<Media> batch = mediaRepository.findByIdGreaterThanAndFileTypeStartingWithOrderByIdAsc(
+                backfillCursor, "image/", Limit.of(backfillBatchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        for (Media media : batch) {
+            String filePath = media.getFilePath();
+            if (filePath != null && !filePath.startsWith("http")) {
+                Path original = Paths.get(uploadDir).resolve(Paths.get(filePath).getFileName());
+                for (int width : backfillWidths) {
+                    resolve(original, width);
+                }
+            }
+            backfillCursor = media.getId();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.localnews.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Image decoding and scaling shared by the thumbnail worker and derivative
+ * generation. Decodes with source subsampling so only roughly the target
+ * resolution is ever rasterised, instead of the full original.
+ */
+final class ImageThumbnails {
+
+    private ImageThumbnails() {}
+
+    /**
+     * Decodes {@code source} at the coarsest subsampling that still leaves at
+     * least {@code minWidth x minHeight} pixels.
+     *
+     * @return the decoded image, or null if no ImageIO reader understands the file
+     */
+    static BufferedImage readSubsampled(Path source, int minWidth, int minHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.min(width / Math.max(1, minWidth), height / Math.max(1, minHeight)));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reads only the image header.
+     *
+     * @return {width, height}, or null if no ImageIO reader understands the file
+     */
+    static int[] readDimensions(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales {@code original} to fit inside {@code maxWidth x maxHeight} keeping
+     * its aspect ratio. Never upscales.
+     */
+    static BufferedImage fitWithin(BufferedImage original, int maxWidth, int maxHeight) {
+        double ratio = Math.min(1.0, Math.min((double) maxWidth / original.getWidth(),
+                (double) maxHeight / original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * ratio));
+        return scale(original, width, height);
+    }
+
+    static BufferedImage scale(BufferedImage original, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(original, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    static BufferedImage videoPlaceholder(int width, int height) {
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = thumbnail.createGraphics();
+
+        // Create video icon background
+        g2d.setColor(Color.DARK_GRAY);
+        g2d.fillRect(0, 0, width, height);
+
+        // Draw play button
+        g2d.setColor(Color.WHITE);
+        int playSize = Math.min(width, height) / 3;
+        int playX = (width - playSize) / 2;
+        int playY = (height - playSize) / 2;
+
+        int[] xPoints = {playX, playX, playX + playSize};
+        int[] yPoints = {playY, playY + playSize, playY + playSize/2};
+        g2d.fillPolygon(xPoints, yPoints, 3);
+
+        g2d.dispose();
+        return thumbnail;
+    }
+
+    static String imageFormat(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        switch (extension) {
+            case "png": return "png";
+            case "gif": return "gif";
+            case "bmp": return "bmp";
+            default: return "jpg";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link OtpStore}: a bounded map swept for expired codes. Pending
+ * codes are lost on restart, which only means users ask for a new one.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    @Value("${otp.store.max-entries:100000}")
+    private int maxEntries;
+
+    private final Map<String, PendingCode> codes = new ConcurrentHashMap<>();
+
+    private static class PendingCode {
+        final byte[] hash;
+        final Instant expiresAt;
+        final int attempts;
+
+        PendingCode(byte[] hash, Instant expiresAt, int attempts) {
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+            this.attempts = attempts;
+        }
+    }
+
+    @Override
+    public boolean put(String mobileNumber, String code, Instant expiresAt) {
+        if (codes.size() >= maxEntries && !codes.containsKey(mobileNumber)) {
+            removeExpired();
+            if (codes.size() >= maxEntries) {
+                return false;
+            }
+        }
+        codes.put(mobileNumber, new PendingCode(OtpStore.hash(mobileNumber, code), expiresAt, 0));
+        return true;
+    }
+
+    @Override
+    public Result verify(String mobileNumber, String code, int maxAttempts) {
+        Result[] result = {Result.EXPIRED};
+        Instant now = Instant.now();
+        // compute() runs atomically per key, so concurrent guesses cannot share an attempt
+        codes.compute(mobileNumber, (key, pending) -> {
+            if (pending == null || pending.expiresAt.isBefore(now)) {
+                result[0] = Result.EXPIRED;
+                return null;
+            }
+            if (OtpStore.matches(pending.hash, mobileNumber, code)) {
+                result[0] = Result.VALID;
+                return null;
+            }
+            int attempts = pending.attempts + 1;
+            if (attempts >= maxAttempts) {
+                result[0] = Result.TOO_MANY_ATTEMPTS;
+                return null;
+            }
+            result[0] = Result.INVALID;
+            return new PendingCode(pending.hash, pending.expiresAt, attempts);
+        });
+        return result[0];
+    }
+
+    @Scheduled(fixedDelayString = "${otp.store.sweep-interval-ms:60000}")
+    public void removeExpired() {
+        Instant now = Instant.now();
+        codes.entrySet().removeIf(entry -> entry.getValue().expiresAt.isBefore(now));
+    }
+}
@@ -0,0 +1,84 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * {@link OtpStore} backed by the narrow {@code otp_codes} table, for running
+ * several instances behind a load balancer. One row per mobile number, so an
+ * OTP burst is bounded by the number of distinct numbers rather than requests.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+public class JdbcOtpStore implements OtpStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO otp_codes (mobile_number, code_hash, expires_at, attempts, created_at) " +
+            "VALUES (?, ?, ?, 0, now()) " +
+            "ON CONFLICT (mobile_number) DO UPDATE SET " +
+            "code_hash = EXCLUDED.code_hash, expires_at = EXCLUDED.expires_at, attempts = 0, created_at = now()";
+
+    private static final String LOCK_SQL =
+            "SELECT code_hash, expires_at, attempts FROM otp_codes WHERE mobile_number = ? FOR UPDATE";
+
+    private static final String DELETE_SQL = "DELETE FROM otp_codes WHERE mobile_number = ?";
+
+    private static final String COUNT_ATTEMPT_SQL = "UPDATE otp_codes SET attempts = attempts + 1 WHERE mobile_number = ?";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM otp_codes WHERE expires_at < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record PendingCode(byte[] hash, Instant expiresAt, int attempts) {}
+
+    @Override
+    public boolean put(String mobileNumber, String code, Instant expiresAt) {
+        jdbcTemplate.update(UPSERT_SQL, mobileNumber, HexFormat.of().formatHex(OtpStore.hash(mobileNumber, code)),
+                Timestamp.from(expiresAt));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Result verify(String mobileNumber, String code, int maxAttempts) {
+        // The row lock serializes concurrent guesses for the same number
+        List<PendingCode> rows = jdbcTemplate.query(LOCK_SQL, (rs, rowNum) -> new PendingCode(
+                HexFormat.of().parseHex(rs.getString("code_hash")),
+                rs.getTimestamp("expires_at").toInstant(),
+                rs.getInt("attempts")), mobileNumber);
+        if (rows.isEmpty()) {
+            return Result.EXPIRED;
+        }
+
+        PendingCode pending = rows.get(0);
+        if (pending.expiresAt().isBefore(Instant.now())) {
+            jdbcTemplate.update(DELETE_SQL, mobileNumber);
+            return Result.EXPIRED;
+        }
+        if (OtpStore.matches(pending.hash(), mobileNumber, code)) {
+            jdbcTemplate.update(DELETE_SQL, mobileNumber);
+            return Result.VALID;
+        }
+        if (pending.attempts() + 1 >= maxAttempts) {
+            jdbcTemplate.update(DELETE_SQL, mobileNumber);
+            return Result.TOO_MANY_ATTEMPTS;
+        }
+        jdbcTemplate.update(COUNT_ATTEMPT_SQL, mobileNumber);
+        return Result.INVALID;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.store.sweep-interval-ms:60000}")
+    public void removeExpired() {
+        jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.from(Instant.now()));
+    }
+}
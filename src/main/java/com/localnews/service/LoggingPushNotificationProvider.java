@@ -0,0 +1,35 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local provider that hands each token to {@link SmsService#sendPushNotification},
+ * which only logs until FCM is wired in. Used in development and tests; a real
+ * provider bean marked {@code @Primary} replaces it.
+ */
+@Component
+public class LoggingPushNotificationProvider implements PushNotificationProvider {
+
+    @Autowired
+    private SmsService smsService;
+
+    @Override
+    public int maxBatchSize() {
+        return 500;
+    }
+
+    @Override
+    public List<String> send(List<String> deviceTokens, String title, String body) {
+        List<String> failed = new ArrayList<>();
+        for (String deviceToken : deviceTokens) {
+            if (!smsService.sendPushNotification(deviceToken, title, body)) {
+                failed.add(deviceToken);
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,36 @@
+package com.localnews.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local provider that only logs each message, OTPs included, so codes can be
+ * read from the log in development and tests. A real provider bean marked
+ * {@code @Primary} replaces it.
+ */
+@Component
+public class LoggingSmsProvider implements SmsProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingSmsProvider.class);
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public int maxConcurrentRequests() {
+        return 4;
+    }
+
+    @Override
+    public List<String> send(List<String> mobileNumbers, String message) {
+        for (String mobileNumber : mobileNumbers) {
+            logger.info("SMS to {}: {}", mobileNumber, message);
+        }
+        return List.of();
+    }
+}
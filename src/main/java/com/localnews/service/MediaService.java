@@ -3,27 +3,33 @@ package com.localnews.service;
 import com.localnews.entity.Media;
 import com.localnews.entity.User;
 import com.localnews.repository.MediaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.List;
 import java.util.UUID;
 
 @Service
 public class MediaService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MediaService.class);
+
+    private static final String LOCAL_URL_PREFIX = "/uploads/";
+
+    private static final int MAX_MEDIA_PAGE_SIZE = 100;
+
     @Value("${upload.dir}")
     private String uploadDir;
 
@@ -42,6 +48,21 @@ public class MediaService {
     @Autowired(required = false)
     private S3FileStorageService s3FileStorageService;
 
+    @Autowired
+    private UploadStreamWriter uploadStreamWriter;
+
+    @Autowired
+    private ThumbnailWorker thumbnailWorker;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
+
+    @Autowired
+    private VideoFastStart videoFastStart;
+
+    @Value("${upload.stream.max-bytes:104857600}")
+    private long maxStreamBytes;
+
     public String uploadFile(MultipartFile file, User user, String title) throws IOException {
         try {
             System.out.println("Starting file upload for user: " + user.getEmail());
@@ -53,22 +74,33 @@ public class MediaService {
 
             // Use S3 or local storage based on configuration
             String filePath;
-            String thumbnailPath = null;
+            boolean localFile = false;
 
             if (s3Enabled && s3FileStorageService != null) {
-                // Upload to S3
-                filePath = s3FileStorageService.uploadFile(file, "media");
+                // Upload to S3, unless the same content is already there
+                String sha256;
+                try (InputStream in = file.getInputStream()) {
+                    sha256 = uploadStreamWriter.sha256(in);
+                }
+                filePath = contentStore.acquireExisting(sha256);
+                if (filePath == null) {
+                    String uploaded = s3FileStorageService.uploadFile(file, "media");
+                    filePath = contentStore.adopt(new StoredFile(uploaded, file.getSize(), sha256), file.getContentType());
+                }
                 // For S3, we'll generate thumbnails later or use a different approach
                 System.out.println("File uploaded to S3: " + filePath);
             } else {
                 // Use local storage
                 filePath = uploadToLocalStorage(file);
-                thumbnailPath = generateLocalThumbnail(filePath, file.getContentType());
+                localFile = true;
                 System.out.println("File uploaded locally: " + filePath);
             }
 
-            // Save file info to database
-            saveMediaRecord(file, user, title, filePath, thumbnailPath);
+            // Save file info to database; the thumbnail is filled in by the worker pool
+            Media media = saveMediaRecord(file, user, title, filePath, null);
+            if (localFile && media != null) {
+                thumbnailWorker.enqueue(media.getId(), filePath, file.getContentType());
+            }
 
             return filePath;
 
@@ -114,9 +146,9 @@ public class MediaService {
         }
         String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
 
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Save file, or reuse an identical one already stored
+        String url = storeDeduplicated(file, uploadPath, uniqueFileName);
+        Path filePath = uploadPath.resolve(url.substring(LOCAL_URL_PREFIX.length()));
 
         // Verify file was created
         if (!Files.exists(filePath)) {
@@ -126,34 +158,35 @@ public class MediaService {
         return filePath.toString();
     }
 
-    private String generateLocalThumbnail(String originalFilePath, String contentType) {
-        try {
-            Path originalPath = Paths.get(originalFilePath);
-            Path thumbnailDir = Paths.get(uploadDir, "thumbnails");
-            String fileName = originalPath.getFileName().toString();
-            String thumbnailFileName = "thumb_" + fileName;
-            Path thumbnailPath = thumbnailDir.resolve(thumbnailFileName);
-
-            if (contentType != null && contentType.startsWith("image/")) {
-                BufferedImage originalImage = ImageIO.read(originalPath.toFile());
-                if (originalImage != null) {
-                    BufferedImage thumbnail = createImageThumbnail(originalImage, 200, 200);
-                    String format = getImageFormat(fileName);
-                    ImageIO.write(thumbnail, format, thumbnailPath.toFile());
-                    return thumbnailPath.toString();
-                }
-            } else if (contentType != null && contentType.startsWith("video/")) {
-                BufferedImage videoThumbnail = createVideoThumbnail(200, 200);
-                ImageIO.write(videoThumbnail, "png", thumbnailPath.toFile());
-                return thumbnailPath.toString();
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to generate thumbnail: " + e.getMessage());
+    /**
+     * Hashes the spooled upload and reuses the stored copy if the same content
+     * is already indexed; otherwise moves it into {@code upload.dir} under
+     * {@code fileName} and indexes it.
+     *
+     * @return the public URL of the stored content
+     */
+    private String storeDeduplicated(MultipartFile file, Path uploadPath, String fileName) throws IOException {
+        String sha256;
+        try (InputStream in = file.getInputStream()) {
+            sha256 = uploadStreamWriter.sha256(in);
+        }
+
+        String existing = contentStore.acquireExisting(sha256);
+        if (existing != null) {
+            logger.info("Upload matches stored content, reusing {}", existing);
+            return existing;
         }
-        return null;
+
+        Path target = uploadPath.resolve(fileName).toAbsolutePath();
+        file.transferTo(target);
+        StoredFile stored = new StoredFile(LOCAL_URL_PREFIX + fileName, file.getSize(), sha256);
+        if (file.getContentType() != null && file.getContentType().startsWith("video/")) {
+            stored = videoFastStart.prepare(stored, target);
+        }
+        return contentStore.adopt(stored, file.getContentType());
     }
 
-    private void saveMediaRecord(MultipartFile file, User user, String title, String filePath, String thumbnailPath) {
+    private Media saveMediaRecord(MultipartFile file, User user, String title, String filePath, String thumbnailPath) {
         try {
             Media media = new Media();
             media.setTitle(title != null && !title.trim().isEmpty() ? title.trim() : file.getOriginalFilename());
@@ -167,52 +200,13 @@ public class MediaService {
 
             Media savedMedia = mediaRepository.save(media);
             System.out.println("Media record saved to database with ID: " + savedMedia.getId());
+            return savedMedia;
 
         } catch (Exception dbException) {
             System.err.println("Database save failed, but file was uploaded to: " + filePath);
             System.err.println("Database error: " + dbException.getMessage());
             dbException.printStackTrace();
-        }
-    }
-
-    private BufferedImage createImageThumbnail(BufferedImage original, int width, int height) {
-        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = thumbnail.createGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.drawImage(original, 0, 0, width, height, null);
-        g2d.dispose();
-        return thumbnail;
-    }
-
-    private BufferedImage createVideoThumbnail(int width, int height) {
-        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = thumbnail.createGraphics();
-
-        // Create video icon background
-        g2d.setColor(Color.DARK_GRAY);
-        g2d.fillRect(0, 0, width, height);
-
-        // Draw play button
-        g2d.setColor(Color.WHITE);
-        int playSize = Math.min(width, height) / 3;
-        int playX = (width - playSize) / 2;
-        int playY = (height - playSize) / 2;
-
-        int[] xPoints = {playX, playX, playX + playSize};
-        int[] yPoints = {playY, playY + playSize, playY + playSize/2};
-        g2d.fillPolygon(xPoints, yPoints, 3);
-
-        g2d.dispose();
-        return thumbnail;
-    }
-
-    private String getImageFormat(String fileName) {
-        String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
-        switch (extension) {
-            case "png": return "png";
-            case "gif": return "gif";
-            case "bmp": return "bmp";
-            default: return "jpg";
+            return null;
         }
     }
 
@@ -233,12 +227,8 @@ public class MediaService {
                 originalFilename.substring(originalFilename.lastIndexOf(".")) : ".mp4";
             String uniqueFilename = "video_" + UUID.randomUUID().toString() + fileExtension;
 
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(videoFile.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return the URL path for accessing the video
-            String videoUrl = "/uploads/" + uniqueFilename;
+            // Save file, or reuse an identical one already stored
+            String videoUrl = storeDeduplicated(videoFile, uploadPath, uniqueFilename);
             System.out.println("Video uploaded successfully to: " + videoUrl);
 
             return videoUrl;
@@ -249,6 +239,52 @@ public class MediaService {
         }
     }
 
+    /**
+     * Stores a raw request body as a video in a single pass, without the multipart
+     * spool file. Goes to S3 as a multipart upload when S3 is enabled, otherwise
+     * straight into {@code upload.dir}.
+     */
+    public StoredFile storeVideoStream(InputStream in, String originalFilename, String contentType) throws IOException {
+        String fileExtension = ".mp4";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+
+        StoredFile stored;
+        if (s3Enabled && s3FileStorageService != null) {
+            stored = s3FileStorageService.uploadStream(in, "videos", "video" + fileExtension, contentType, maxStreamBytes);
+        } else {
+            Path uploadPath = Paths.get(uploadDir);
+            if (!Files.exists(uploadPath)) {
+                Files.createDirectories(uploadPath);
+            }
+
+            String uniqueFilename = "video_" + UUID.randomUUID().toString() + fileExtension;
+            Path target = uploadPath.resolve(uniqueFilename);
+            stored = uploadStreamWriter.write(in, target, LOCAL_URL_PREFIX + uniqueFilename, maxStreamBytes);
+            if (stored.getSize() > 0) {
+                stored = videoFastStart.prepare(stored, target);
+            }
+        }
+
+        if (stored.getSize() == 0) {
+            discard(stored.getUrl());
+            return stored;
+        }
+
+        // The hash is only known once the body has been written; a duplicate copy is dropped here
+        String url = contentStore.adopt(stored, contentType);
+        return new StoredFile(url, stored.getSize(), stored.getSha256());
+    }
+
+    private void discard(String url) throws IOException {
+        if (url.startsWith(LOCAL_URL_PREFIX)) {
+            Files.deleteIfExists(Paths.get(uploadDir).resolve(url.substring(LOCAL_URL_PREFIX.length())));
+        } else if (s3FileStorageService != null) {
+            s3FileStorageService.deleteFile(url);
+        }
+    }
+
     public String uploadThumbnailFile(MultipartFile thumbnailFile, String title) throws IOException {
         try {
             System.out.println("Starting thumbnail upload for: " + title);
@@ -266,12 +302,8 @@ public class MediaService {
                 originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
             String uniqueFilename = "thumb_" + UUID.randomUUID().toString() + fileExtension;
 
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(thumbnailFile.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return the URL path for accessing the thumbnail
-            String thumbnailUrl = "/uploads/" + uniqueFilename;
+            // Save file, or reuse an identical one already stored
+            String thumbnailUrl = storeDeduplicated(thumbnailFile, uploadPath, uniqueFilename);
             System.out.println("Thumbnail uploaded successfully to: " + thumbnailUrl);
 
             return thumbnailUrl;
@@ -282,11 +314,15 @@ public class MediaService {
         }
     }
 
-    public List<Media> getAllMedia() {
-        return mediaRepository.findAll();
+    public Page<Media> getMediaPage(int page, int size) {
+        return mediaRepository.findPageWithUploader(pageRequest(page, size));
+    }
+
+    public Page<Media> getMediaPageByUser(User user, int page, int size) {
+        return mediaRepository.findPageByUser(user, pageRequest(page, size));
     }
 
-    public List<Media> getAllMediaByUser(User user) {
-        return mediaRepository.findByUserOrderByUploadedAtDesc(user);
+    private static PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_MEDIA_PAGE_SIZE)));
     }
 }
@@ -0,0 +1,297 @@
+package com.localnews.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Minimal ISO-BMFF (MP4/MOV) reader. Walks the top-level boxes without
+ * touching {@code mdat}, loads {@code moov} into memory and pulls out what the
+ * ingest pipeline needs: the movie duration from {@code mvhd} and the byte
+ * position and presentation time of the first keyframe of the first video
+ * track, from the sample tables ({@code stss}, {@code stts}, {@code stsz},
+ * {@code stsc}, {@code stco}/{@code co64}).
+ */
+public final class Mp4BoxParser {
+
+    // moov for a long, finely-chunked recording is a few MB; anything past this is not a file we accept
+    private static final long MAX_MOOV_BYTES = 64L * 1024 * 1024;
+
+    private Mp4BoxParser() {}
+
+    public static class Mp4Info {
+        private long durationMillis = -1;
+        private long moovOffset = -1;
+        private long moovSize;
+        private long mdatOffset = -1;
+        private boolean hasVideoTrack;
+        private long keyframeOffset = -1;
+        private int keyframeSize;
+        private long keyframeTimeMillis;
+
+        public long getDurationMillis() { return durationMillis; }
+        public long getMoovOffset() { return moovOffset; }
+        public long getMoovSize() { return moovSize; }
+        public long getMdatOffset() { return mdatOffset; }
+        public boolean hasVideoTrack() { return hasVideoTrack; }
+        public long getKeyframeOffset() { return keyframeOffset; }
+        public int getKeyframeSize() { return keyframeSize; }
+        public long getKeyframeTimeMillis() { return keyframeTimeMillis; }
+
+        public int getDurationSeconds() {
+            return durationMillis < 0 ? -1 : (int) Math.max(1, Math.round(durationMillis / 1000.0));
+        }
+
+        /** True when moov comes before mdat, so playback can start before the whole file arrives. */
+        public boolean isFastStart() {
+            return moovOffset >= 0 && (mdatOffset < 0 || moovOffset < mdatOffset);
+        }
+    }
+
+    /**
+     * @throws IOException if the file is not an MP4/MOV, is truncated or
+     *                     corrupt, or has no {@code moov} box
+     */
+    public static Mp4Info parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Mp4Info info = new Mp4Info();
+            long fileSize = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(16);
+
+            while (position + 8 <= fileSize) {
+                header.clear().limit(8);
+                readFully(channel, header, position);
+                long size = Integer.toUnsignedLong(header.getInt(0));
+                String type = fourCc(header, 4);
+                int headerSize = 8;
+
+                if (size == 1) {
+                    header.clear().limit(8);
+                    readFully(channel, header, position + 8);
+                    size = header.getLong(0);
+                    headerSize = 16;
+                } else if (size == 0) {
+                    size = fileSize - position;
+                }
+                if (size < headerSize || position + size > fileSize) {
+                    throw new IOException("Corrupt MP4 box '" + type + "' at offset " + position);
+                }
+
+                if ("moov".equals(type)) {
+                    long payloadSize = size - headerSize;
+                    if (payloadSize > MAX_MOOV_BYTES) {
+                        throw new IOException("moov box too large: " + payloadSize + " bytes");
+                    }
+                    ByteBuffer moov = ByteBuffer.allocate((int) payloadSize);
+                    readFully(channel, moov, position + headerSize);
+                    moov.flip();
+                    info.moovOffset = position;
+                    info.moovSize = size;
+                    try {
+                        parseMoov(moov, info);
+                    } catch (IndexOutOfBoundsException e) {
+                        // A child box too short for the fields it declares
+                        throw new IOException("Corrupt MP4 moov box at offset " + position, e);
+                    }
+                } else if ("mdat".equals(type) && info.mdatOffset < 0) {
+                    info.mdatOffset = position;
+                }
+                position += size;
+            }
+
+            if (info.moovOffset < 0) {
+                throw new IOException("No moov box found; not an MP4/MOV file");
+            }
+            return info;
+        }
+    }
+
+    private static void parseMoov(ByteBuffer moov, Mp4Info info) {
+        forEachChild(moov, (type, box) -> {
+            if ("mvhd".equals(type)) {
+                int version = box.get(0);
+                long timescale = Integer.toUnsignedLong(box.getInt(version == 1 ? 20 : 12));
+                long duration = version == 1 ? box.getLong(24) : Integer.toUnsignedLong(box.getInt(16));
+                if (timescale > 0) {
+                    info.durationMillis = duration * 1000 / timescale;
+                }
+            } else if ("trak".equals(type) && !info.hasVideoTrack) {
+                parseTrack(box, info);
+            }
+        });
+    }
+
+    private static void parseTrack(ByteBuffer trak, Mp4Info info) {
+        ByteBuffer mdia = findChild(trak, "mdia");
+        if (mdia == null) {
+            return;
+        }
+        ByteBuffer hdlr = findChild(mdia, "hdlr");
+        if (hdlr == null || !"vide".equals(fourCc(hdlr, 8))) {
+            return;
+        }
+        ByteBuffer mdhd = findChild(mdia, "mdhd");
+        ByteBuffer minf = findChild(mdia, "minf");
+        ByteBuffer stbl = minf != null ? findChild(minf, "stbl") : null;
+        if (mdhd == null || stbl == null) {
+            return;
+        }
+        info.hasVideoTrack = true;
+
+        int version = mdhd.get(0);
+        long timescale = Integer.toUnsignedLong(mdhd.getInt(version == 1 ? 20 : 12));
+
+        // First sync sample; without stss every sample is a sync sample
+        ByteBuffer stss = findChild(stbl, "stss");
+        long keyframe = 1;
+        if (stss != null && stss.getInt(4) > 0) {
+            keyframe = Integer.toUnsignedLong(stss.getInt(8));
+        }
+
+        ByteBuffer stts = findChild(stbl, "stts");
+        if (stts != null && timescale > 0) {
+            long decodeTime = 0;
+            long sample = 1;
+            int entries = stts.getInt(4);
+            for (int i = 0; i < entries && sample < keyframe; i++) {
+                long count = Integer.toUnsignedLong(stts.getInt(8 + i * 8));
+                long delta = Integer.toUnsignedLong(stts.getInt(12 + i * 8));
+                long take = Math.min(count, keyframe - sample);
+                decodeTime += take * delta;
+                sample += take;
+            }
+            info.keyframeTimeMillis = decodeTime * 1000 / timescale;
+        }
+
+        ByteBuffer stsz = findChild(stbl, "stsz");
+        ByteBuffer stsc = findChild(stbl, "stsc");
+        ByteBuffer stco = findChild(stbl, "stco");
+        ByteBuffer co64 = stco == null ? findChild(stbl, "co64") : null;
+        if (stsz == null || stsc == null || (stco == null && co64 == null)) {
+            return;
+        }
+
+        long uniformSize = Integer.toUnsignedLong(stsz.getInt(4));
+        long sampleCount = Integer.toUnsignedLong(stsz.getInt(8));
+        if (keyframe < 1 || keyframe > sampleCount) {
+            return;
+        }
+        // Per-sample sizes are read below; a table shorter than its declared count is corrupt
+        if (uniformSize == 0 && stsz.limit() < 12 + sampleCount * 4) {
+            return;
+        }
+
+        // Walk stsc runs to find the chunk holding the keyframe and its first sample
+        int chunkCount = (stco != null ? stco : co64).getInt(4);
+        int runs = stsc.getInt(4);
+        long firstSampleOfChunk = 1;
+        long chunk = -1;
+        for (int i = 0; i < runs && chunk < 0; i++) {
+            long firstChunk = Integer.toUnsignedLong(stsc.getInt(8 + i * 12));
+            long samplesPerChunk = Integer.toUnsignedLong(stsc.getInt(12 + i * 12));
+            long nextFirstChunk = i + 1 < runs ? Integer.toUnsignedLong(stsc.getInt(8 + (i + 1) * 12)) : chunkCount + 1L;
+            if (firstChunk < 1 || nextFirstChunk <= firstChunk) {
+                // Runs must start at chunk 1 and increase; anything else would make the sample count go negative
+                return;
+            }
+            long samplesInRun = (nextFirstChunk - firstChunk) * samplesPerChunk;
+            if (samplesPerChunk > 0 && keyframe < firstSampleOfChunk + samplesInRun) {
+                long chunkInRun = (keyframe - firstSampleOfChunk) / samplesPerChunk;
+                chunk = firstChunk + chunkInRun;
+                firstSampleOfChunk += chunkInRun * samplesPerChunk;
+            } else {
+                firstSampleOfChunk += samplesInRun;
+            }
+        }
+        if (chunk < 1 || chunk > chunkCount || firstSampleOfChunk < 1 || firstSampleOfChunk > keyframe) {
+            return;
+        }
+
+        long offset = stco != null
+                ? Integer.toUnsignedLong(stco.getInt(8 + (int) (chunk - 1) * 4))
+                : co64.getLong(8 + (int) (chunk - 1) * 8);
+        if (uniformSize != 0) {
+            // Never walk sample by sample here: a crafted stsc can put billions of samples in one chunk
+            try {
+                offset = Math.addExact(offset, Math.multiplyExact(keyframe - firstSampleOfChunk, uniformSize));
+            } catch (ArithmeticException e) {
+                return;
+            }
+        } else {
+            // Bounded by the stsz table, which was checked against the box size above
+            for (long s = firstSampleOfChunk; s < keyframe; s++) {
+                offset += Integer.toUnsignedLong(stsz.getInt(12 + (int) (s - 1) * 4));
+            }
+        }
+        long size = uniformSize != 0 ? uniformSize : Integer.toUnsignedLong(stsz.getInt(12 + (int) (keyframe - 1) * 4));
+        if (offset < 0 || size > Integer.MAX_VALUE) {
+            return;
+        }
+
+        info.keyframeOffset = offset;
+        info.keyframeSize = (int) size;
+    }
+
+    @FunctionalInterface
+    interface BoxVisitor {
+        void visit(String type, ByteBuffer payload);
+    }
+
+    /**
+     * Calls {@code visitor} for each child box of {@code container}, with the
+     * payload (everything after the box header) as a zero-based slice.
+     */
+    static void forEachChild(ByteBuffer container, BoxVisitor visitor) {
+        int position = 0;
+        int limit = container.limit();
+        while (position + 8 <= limit) {
+            long size = Integer.toUnsignedLong(container.getInt(position));
+            String type = fourCc(container, position + 4);
+            int headerSize = 8;
+            if (size == 1) {
+                if (position + 16 > limit) {
+                    return;
+                }
+                size = container.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = limit - position;
+            }
+            if (size < headerSize || position + size > limit) {
+                return;
+            }
+            visitor.visit(type, container.slice(position + headerSize, (int) size - headerSize));
+            position += (int) size;
+        }
+    }
+
+    static ByteBuffer findChild(ByteBuffer container, String wanted) {
+        ByteBuffer[] found = new ByteBuffer[1];
+        forEachChild(container, (type, payload) -> {
+            if (found[0] == null && wanted.equals(type)) {
+                found[0] = payload;
+            }
+        });
+        return found[0];
+    }
+
+    private static String fourCc(ByteBuffer buffer, int index) {
+        byte[] bytes = new byte[4];
+        buffer.get(index, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of MP4 file");
+            }
+            position += read;
+        }
+    }
+}
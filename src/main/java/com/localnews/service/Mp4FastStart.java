@@ -0,0 +1,162 @@
+package com.localnews.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rewrites an MP4 whose {@code moov} box trails the media data so that
+ * {@code moov} comes first, letting players start before the whole file has
+ * downloaded. {@code moov} is copied through a memory-mapped region of the new
+ * file and its chunk offsets ({@code stco}/{@code co64}) patched in place; the
+ * media data is copied channel-to-channel, never through the heap. The result
+ * replaces the original atomically.
+ */
+public final class Mp4FastStart {
+
+    private Mp4FastStart() {}
+
+    /**
+     * Parses {@code file} and rewrites it if it is an MP4 with a trailing {@code moov}.
+     *
+     * @return true if the file was rewritten; false if it is already fast-start,
+     *         is not an MP4, or cannot be rewritten
+     */
+    public static boolean rewrite(Path file) throws IOException {
+        Mp4BoxParser.Mp4Info info;
+        try {
+            info = Mp4BoxParser.parse(file);
+        } catch (IOException e) {
+            return false;
+        }
+        return rewrite(file, info);
+    }
+
+    /**
+     * @return true if the file was rewritten, false if it was already fast-start
+     *         or cannot be rewritten without growing {@code moov}
+     */
+    public static boolean rewrite(Path file, Mp4BoxParser.Mp4Info info) throws IOException {
+        if (info.isFastStart() || info.getMdatOffset() < 0) {
+            return false;
+        }
+
+        long insertAt = info.getMdatOffset();
+        long moovOffset = info.getMoovOffset();
+        long moovSize = info.getMoovSize();
+        // Unique per call, so two rewrites of the same file never share a temp file
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".faststart.tmp");
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = in.size();
+
+            // Everything before the first mdat (ftyp, free, ...) stays where it is
+            copy(in, 0, insertAt, out, 0);
+
+            MappedByteBuffer source = in.map(FileChannel.MapMode.READ_ONLY, moovOffset, moovSize);
+            MappedByteBuffer moov = out.map(FileChannel.MapMode.READ_WRITE, insertAt, moovSize);
+            moov.put(source);
+            int headerSize = moov.getInt(0) == 1 ? 16 : 8;
+            if (!patchChunkOffsets(moov.slice(headerSize, (int) moovSize - headerSize), insertAt, moovOffset, moovSize)) {
+                out.close();
+                Files.deleteIfExists(tmp);
+                return false;
+            }
+            moov.force();
+
+            // Media data shifts down by the size of moov; anything after the old moov keeps its offset
+            copy(in, insertAt, moovOffset - insertAt, out, insertAt + moovSize);
+            copy(in, moovOffset + moovSize, fileSize - moovOffset - moovSize, out, moovOffset + moovSize);
+            out.force(false);
+        } catch (IndexOutOfBoundsException e) {
+            // A sample table declaring more entries than it holds
+            Files.deleteIfExists(tmp);
+            throw new IOException("Corrupt MP4 chunk offset table", e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Adds {@code moovSize} to every chunk offset that points between the
+     * insertion point and the old {@code moov}, i.e. into media data that moves.
+     *
+     * @return false if a 32-bit stco entry would overflow; nothing is patched then
+     */
+    private static boolean patchChunkOffsets(ByteBuffer moov, long insertAt, long moovOffset, long moovSize) {
+        boolean[] fits = {true};
+        forEachChunkOffsetTable(moov, (type, table) -> {
+            int entries = table.getInt(4);
+            for (int i = 0; i < entries && "stco".equals(type); i++) {
+                long offset = Integer.toUnsignedLong(table.getInt(8 + i * 4));
+                if (offset >= insertAt && offset < moovOffset && offset + moovSize > 0xFFFFFFFFL) {
+                    fits[0] = false;
+                }
+            }
+        });
+        if (!fits[0]) {
+            return false;
+        }
+
+        forEachChunkOffsetTable(moov, (type, table) -> {
+            int entries = table.getInt(4);
+            for (int i = 0; i < entries; i++) {
+                if ("stco".equals(type)) {
+                    int index = 8 + i * 4;
+                    long offset = Integer.toUnsignedLong(table.getInt(index));
+                    if (offset >= insertAt && offset < moovOffset) {
+                        table.putInt(index, (int) (offset + moovSize));
+                    }
+                } else {
+                    int index = 8 + i * 8;
+                    long offset = table.getLong(index);
+                    if (offset >= insertAt && offset < moovOffset) {
+                        table.putLong(index, offset + moovSize);
+                    }
+                }
+            }
+        });
+        return true;
+    }
+
+    private static void forEachChunkOffsetTable(ByteBuffer moov, Mp4BoxParser.BoxVisitor visitor) {
+        Mp4BoxParser.forEachChild(moov, (trakType, trak) -> {
+            if (!"trak".equals(trakType)) {
+                return;
+            }
+            ByteBuffer mdia = Mp4BoxParser.findChild(trak, "mdia");
+            ByteBuffer minf = mdia != null ? Mp4BoxParser.findChild(mdia, "minf") : null;
+            ByteBuffer stbl = minf != null ? Mp4BoxParser.findChild(minf, "stbl") : null;
+            if (stbl == null) {
+                return;
+            }
+            Mp4BoxParser.forEachChild(stbl, (type, table) -> {
+                if ("stco".equals(type) || "co64".equals(type)) {
+                    visitor.visit(type, table);
+                }
+            });
+        });
+    }
+
+    private static void copy(FileChannel in, long position, long count, FileChannel out, long outPosition) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long sent = in.transferTo(position + done, count - done, out.position(outPosition + done));
+            if (sent <= 0) {
+                throw new IOException("Unexpected end of MP4 file while rewriting");
+            }
+            done += sent;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets in front of the OTP endpoints: one per mobile number for
+ * sending (each send is an SMS we pay for) and one per client IP covering
+ * both sending and verifying. Buckets that have refilled completely carry no
+ * state and are dropped by a periodic sweep, which keeps the maps small.
+ * When the maps are full, new keys are refused; an extra sweep runs inline at
+ * most once a second to make room.
+ */
+@Component
+public class OtpRateLimiter {
+
+    private static final long INLINE_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${otp.rate-limit.mobile.capacity:3}")
+    private int mobileCapacity;
+
+    @Value("${otp.rate-limit.mobile.refill-seconds:120}")
+    private long mobileRefillSeconds;
+
+    @Value("${otp.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${otp.rate-limit.ip.refill-seconds:6}")
+    private long ipRefillSeconds;
+
+    @Value("${otp.rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    private final Map<String, TokenBucket> mobileBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    // Time of the last inline sweep, 0 before the first
+    private final AtomicLong lastInlineSweep = new AtomicLong();
+
+    // Replaced in tests
+    LongSupplier nanoClock = System::nanoTime;
+
+    static class TokenBucket {
+        private final int capacity;
+        private final long refillNanos;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, long refillSeconds, long now) {
+            this.capacity = capacity;
+            this.refillNanos = Math.max(1, refillSeconds) * 1_000_000_000L;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillNanos);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Takes a token for sending an OTP to {@code mobileNumber} from {@code clientIp}.
+     * The IP bucket is checked first so a single client spraying numbers does
+     * not drain the per-number buckets of real users.
+     */
+    public boolean allowSend(String mobileNumber, String clientIp) {
+        return take(ipBuckets, clientIp, ipCapacity, ipRefillSeconds)
+                && take(mobileBuckets, mobileNumber, mobileCapacity, mobileRefillSeconds);
+    }
+
+    public boolean allowVerify(String clientIp) {
+        return take(ipBuckets, clientIp, ipCapacity, ipRefillSeconds);
+    }
+
+    private boolean take(Map<String, TokenBucket> buckets, String key, int capacity, long refillSeconds) {
+        if (key == null) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                // Under a flood of distinct keys, refuse new ones rather than grow without bound;
+                // sweeping on every refused key would turn the flood into a full scan per request
+                if (inlineSweepDue(now)) {
+                    removeIdle(now);
+                }
+                if (buckets.size() >= maxBuckets) {
+                    return false;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillSeconds, now));
+        }
+        return bucket.tryTake(now);
+    }
+
+    private boolean inlineSweepDue(long now) {
+        long last = lastInlineSweep.get();
+        return (last == 0 || now - last >= INLINE_SWEEP_INTERVAL_NANOS) && lastInlineSweep.compareAndSet(last, now);
+    }
+
+    @Scheduled(fixedDelayString = "${otp.rate-limit.sweep-interval-ms:60000}")
+    public void removeIdle() {
+        removeIdle(nanoClock.getAsLong());
+    }
+
+    private void removeIdle(long now) {
+        mobileBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
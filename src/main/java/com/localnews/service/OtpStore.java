@@ -0,0 +1,46 @@
+package com.localnews.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+/**
+ * Pending OTPs by mobile number, kept apart from {@code users} so that an OTP
+ * request never writes to the main table. Only a SHA-256 of the code is held
+ * and codes are compared in constant time. Selected with {@code otp.store}:
+ * {@code memory} (default, single instance) or {@code jdbc} (shared through
+ * the {@code otp_codes} table).
+ */
+public interface OtpStore {
+
+    enum Result { VALID, INVALID, EXPIRED, TOO_MANY_ATTEMPTS }
+
+    /**
+     * Stores a new code for {@code mobileNumber}, replacing any pending one
+     * and resetting its attempt count.
+     *
+     * @return false if the store is full and the code was not stored
+     */
+    boolean put(String mobileNumber, String code, Instant expiresAt);
+
+    /**
+     * Checks {@code code} against the pending one. A valid code is consumed;
+     * a wrong one counts as an attempt and the pending code is dropped once
+     * {@code maxAttempts} is reached.
+     */
+    Result verify(String mobileNumber, String code, int maxAttempts);
+
+    static byte[] hash(String mobileNumber, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return digest.digest((mobileNumber + ":" + code).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static boolean matches(byte[] expectedHash, String mobileNumber, String code) {
+        return MessageDigest.isEqual(expectedHash, hash(mobileNumber, code));
+    }
+}
@@ -0,0 +1,25 @@
+package com.localnews.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+/**
+ * Stand-in decoder for environments without a video codec: draws the play-icon
+ * placeholder. The rest of the pipeline (parsing, duration, storing the poster)
+ * still runs, which is what local runs and tests need.
+ */
+@Component
+@ConditionalOnProperty(name = "video.poster.decoder", havingValue = "placeholder", matchIfMissing = true)
+public class PlaceholderFrameDecoder implements VideoFrameDecoder {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 270;
+
+    @Override
+    public BufferedImage decodePosterFrame(Path video, Mp4BoxParser.Mp4Info info) {
+        return ImageThumbnails.videoPlaceholder(WIDTH, HEIGHT);
+    }
+}
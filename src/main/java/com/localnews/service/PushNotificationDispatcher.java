@@ -0,0 +1,191 @@
+package com.localnews.service;
+
+import com.localnews.repository.UserDeviceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background fan-out of push notifications. Device tokens are streamed from one
+ * join query in keyset chunks and sent to the provider in batches on virtual
+ * threads, with a cap on batches in flight. Progress is kept per job so admins
+ * can follow large districts.
+ */
+@Service
+public class PushNotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushNotificationDispatcher.class);
+
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    @Autowired
+    private UserDeviceRepository userDeviceRepository;
+
+    @Autowired
+    private PushNotificationProvider provider;
+
+    @Value("${push.fanout.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${push.fanout.max-concurrent-batches:8}")
+    private int maxConcurrentBatches;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Semaphore batchPermits;
+
+    // Most recent jobs, oldest dropped first
+    private final Map<String, FanOutJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FanOutJob> eldest) {
+            return size() > MAX_TRACKED_JOBS;
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        batchPermits = new Semaphore(Math.max(1, maxConcurrentBatches));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Starts a fan-out to every active device of verified users in the district
+     * (all districts when null) and returns immediately.
+     */
+    public FanOutJob dispatch(Long districtId, String title, String body) {
+        FanOutJob job = new FanOutJob(UUID.randomUUID().toString(), districtId);
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+        }
+        executor.submit(() -> run(job, title, body));
+        return job;
+    }
+
+    public Optional<FanOutJob> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    private void run(FanOutJob job, String title, String body) {
+        List<Future<?>> batches = new ArrayList<>();
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = job.getDistrictId() != null
+                    ? userDeviceRepository.findActiveDeviceTokensByDistrict(job.getDistrictId(), afterId, Limit.of(chunkSize))
+                    : userDeviceRepository.findActiveDeviceTokens(afterId, Limit.of(chunkSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                List<String> tokens = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    tokens.add((String) row[1]);
+                }
+                job.queued.addAndGet(tokens.size());
+
+                int batchSize = Math.max(1, provider.maxBatchSize());
+                for (int from = 0; from < tokens.size(); from += batchSize) {
+                    List<String> batch = tokens.subList(from, Math.min(from + batchSize, tokens.size()));
+                    batchPermits.acquire();
+                    batches.add(executor.submit(() -> {
+                        try {
+                            sendBatch(job, batch, title, body);
+                        } finally {
+                            batchPermits.release();
+                        }
+                    }));
+                }
+
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+            job.finish("COMPLETED");
+            logger.info("Push fan-out {} finished: {} sent, {} failed", job.getJobId(), job.getSent(), job.getFailed());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish("INTERRUPTED");
+        } catch (Exception e) {
+            job.finish("FAILED");
+            logger.error("Push fan-out {} failed after {} sent: {}", job.getJobId(), job.getSent(), e.getMessage());
+        }
+    }
+
+    private void sendBatch(FanOutJob job, List<String> batch, String title, String body) {
+        try {
+            List<String> failed = provider.send(batch, title, body);
+            job.sent.addAndGet(batch.size() - failed.size());
+            job.failed.addAndGet(failed.size());
+        } catch (Exception e) {
+            job.failed.addAndGet(batch.size());
+            logger.warn("Push batch of {} failed for job {}: {}", batch.size(), job.getJobId(), e.getMessage());
+        }
+    }
+
+    public static class FanOutJob {
+        private final String jobId;
+        private final Long districtId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private volatile String status = "RUNNING";
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger sent = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private FanOutJob(String jobId, Long districtId) {
+            this.jobId = jobId;
+            this.districtId = districtId;
+        }
+
+        private void finish(String status) {
+            this.status = status;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        public String getJobId() { return jobId; }
+
+        public Long getDistrictId() { return districtId; }
+
+        public LocalDateTime getStartedAt() { return startedAt; }
+
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+
+        public String getStatus() { return status; }
+
+        public int getQueued() { return queued.get(); }
+
+        public int getSent() { return sent.get(); }
+
+        public int getFailed() { return failed.get(); }
+    }
+}
@@ -0,0 +1,21 @@
+package com.localnews.service;
+
+import java.util.List;
+
+/**
+ * Sends push notifications to a provider (e.g. Firebase FCM) in batches.
+ */
+public interface PushNotificationProvider {
+
+    /**
+     * Largest number of device tokens the provider accepts in one call.
+     */
+    int maxBatchSize();
+
+    /**
+     * Sends one notification to every token in the batch.
+     *
+     * @return the tokens that could not be delivered
+     */
+    List<String> send(List<String> deviceTokens, String title, String body);
+}
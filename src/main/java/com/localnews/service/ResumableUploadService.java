@@ -0,0 +1,273 @@
+package com.localnews.service;
+
+import com.localnews.entity.UploadSession;
+import com.localnews.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server side of the resumable video upload protocol. A session is opened with
+ * the expected total size; the client then PUTs chunks at explicit offsets,
+ * which are written with positional {@link FileChannel} writes into a part
+ * file, and can ask for the received byte count after a dropped connection to
+ * resume from there. Completing the session links the part file into
+ * {@code upload.dir} through the content-addressed store; the part file itself
+ * is kept until the session is marked completed, so a completion that fails
+ * after assembly can be retried. Sessions idle past
+ * {@code upload.resumable.session-ttl-hours} are removed with their part files.
+ *
+ * <p>Errors are reported as {@link NoSuchElementException} (unknown or expired
+ * session), {@link IllegalArgumentException} (bad request) and
+ * {@link IllegalStateException} (offset conflict or session busy).
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final String LOCAL_URL_PREFIX = "/uploads/";
+
+    @Value("${upload.dir}")
+    private String uploadDir;
+
+    @Value("${upload.resumable.max-bytes:104857600}")
+    private long maxBytes;
+
+    @Value("${upload.resumable.max-chunk-bytes:16777216}")
+    private long maxChunkBytes;
+
+    @Value("${upload.resumable.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadStreamWriter uploadStreamWriter;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
+
+    @Autowired
+    private VideoFastStart videoFastStart;
+
+    // One writer per session at a time; a second PUT for the same session is rejected, not queued
+    private final Map<String, ReentrantLock> sessionLocks = new ConcurrentHashMap<>();
+
+    public UploadSession initiate(String title, String description, Long districtId, String filename,
+                                  String contentType, long totalSize) throws IOException {
+        if (totalSize <= 0 || totalSize > maxBytes) {
+            throw new IllegalArgumentException("totalSize must be between 1 and " + maxBytes + " bytes");
+        }
+        if (contentType == null || !contentType.startsWith("video/")) {
+            throw new IllegalArgumentException("Only video files are allowed");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setTitle(title.trim());
+        session.setDescription(description != null ? description.trim() : "");
+        session.setDistrictId(districtId);
+        session.setOriginalFilename(filename);
+        session.setContentType(contentType);
+        session.setTotalSize(totalSize);
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+
+        Files.createDirectories(partDirectory());
+        Files.deleteIfExists(partFile(session.getId()));
+        Files.createFile(partFile(session.getId()));
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession getSession(String sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .filter(s -> s.getStatus() == UploadSession.Status.COMPLETED
+                        || s.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new NoSuchElementException("Upload session not found or expired"));
+    }
+
+    /**
+     * Writes one chunk at {@code offset}. The offset may not be past the bytes
+     * received so far, so the file never has holes; re-sending a chunk that was
+     * already (partly) received is allowed and simply overwrites it.
+     *
+     * @return the number of contiguous bytes received after this chunk
+     */
+    public long writeChunk(String sessionId, long offset, InputStream body) throws IOException {
+        activeSession(sessionId);
+        ReentrantLock lock = sessionLocks.computeIfAbsent(sessionId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("Another chunk for this session is still being written");
+        }
+        try {
+            UploadSession session = activeSession(sessionId);
+            if (offset < 0 || offset > session.getReceivedBytes()) {
+                throw new IllegalStateException("Expected offset at most " + session.getReceivedBytes());
+            }
+
+            long limit = Math.min(session.getTotalSize() - offset, maxChunkBytes);
+            long written = 0;
+            ByteBuffer buffer = uploadStreamWriter.acquireBuffer();
+            try (ReadableByteChannel source = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(partFile(sessionId), StandardOpenOption.WRITE)) {
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    if (written + buffer.remaining() > limit) {
+                        throw new IllegalArgumentException("Chunk exceeds the session size or the "
+                                + maxChunkBytes + " byte chunk limit");
+                    }
+                    while (buffer.hasRemaining()) {
+                        written += out.write(buffer, offset + written);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            } finally {
+                uploadStreamWriter.releaseBuffer(buffer);
+            }
+
+            long received = Math.max(session.getReceivedBytes(), offset + written);
+            uploadSessionRepository.recordProgress(sessionId, received,
+                    LocalDateTime.now().plusHours(sessionTtlHours), UploadSession.Status.ACTIVE);
+            return received;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the fully received file in the upload directory, or reuses the
+     * stored copy if the same content is already there. The caller creates the
+     * {@code Video} and then calls {@link #markCompleted}; if that fails, it
+     * releases the returned URL and the client can complete again.
+     */
+    public StoredFile assemble(String sessionId) throws IOException {
+        activeSession(sessionId);
+        ReentrantLock lock = sessionLocks.computeIfAbsent(sessionId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("A chunk for this session is still being written");
+        }
+        try {
+            UploadSession session = activeSession(sessionId);
+            if (session.getReceivedBytes() != session.getTotalSize()) {
+                throw new IllegalStateException("Upload incomplete: received " + session.getReceivedBytes()
+                        + " of " + session.getTotalSize() + " bytes");
+            }
+
+            Path part = partFile(sessionId);
+            String sha256;
+            try (InputStream in = Files.newInputStream(part)) {
+                sha256 = uploadStreamWriter.sha256(in);
+            }
+
+            String existing = contentStore.acquireExisting(sha256);
+            if (existing != null) {
+                return new StoredFile(existing, session.getTotalSize(), sha256);
+            }
+
+            String uniqueFilename = "video_" + UUID.randomUUID() + extension(session.getOriginalFilename());
+            Path target = Paths.get(uploadDir).resolve(uniqueFilename);
+            linkOrCopy(part, target);
+            StoredFile stored = videoFastStart.prepare(new StoredFile(LOCAL_URL_PREFIX + uniqueFilename,
+                    session.getTotalSize(), sha256), target);
+            String url = contentStore.adopt(stored, session.getContentType());
+            return new StoredFile(url, stored.getSize(), stored.getSha256());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void markCompleted(String sessionId, Long videoId) {
+        uploadSessionRepository.findById(sessionId).ifPresent(session -> {
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setVideoId(videoId);
+            uploadSessionRepository.save(session);
+        });
+        sessionLocks.remove(sessionId);
+        try {
+            Files.deleteIfExists(partFile(sessionId));
+        } catch (IOException e) {
+            logger.warn("Failed to remove part file of completed upload {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    // A hard link costs no copy; the fast-start rewrite replaces the target, never the part file
+    private static void linkOrCopy(Path part, Path target) throws IOException {
+        try {
+            Files.createLink(target, part);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(part, target);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${upload.resumable.cleanup-interval-ms:3600000}")
+    public void removeExpiredSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        for (UploadSession session : uploadSessionRepository.findByStatusAndExpiresAtBefore(UploadSession.Status.ACTIVE, now)) {
+            ReentrantLock lock = sessionLocks.computeIfAbsent(session.getId(), id -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(partFile(session.getId()));
+                uploadSessionRepository.delete(session);
+            } catch (IOException e) {
+                logger.warn("Failed to remove expired upload {}: {}", session.getId(), e.getMessage());
+            } finally {
+                lock.unlock();
+                sessionLocks.remove(session.getId());
+            }
+        }
+
+        // Completed sessions are kept for a TTL so clients can still look up the video id
+        uploadSessionRepository.deleteAll(uploadSessionRepository.findByStatusAndExpiresAtBefore(
+                UploadSession.Status.COMPLETED, now.minusHours(sessionTtlHours)));
+    }
+
+    private UploadSession activeSession(String sessionId) {
+        UploadSession session = getSession(sessionId);
+        if (session.getStatus() != UploadSession.Status.ACTIVE) {
+            throw new IllegalStateException("Upload session already completed");
+        }
+        return session;
+    }
+
+    private Path partDirectory() {
+        return Paths.get(uploadDir, ".resumable");
+    }
+
+    private Path partFile(String sessionId) {
+        return partDirectory().resolve(sessionId + ".part");
+    }
+
+    private static String extension(String filename) {
+        if (filename != null && filename.contains(".")) {
+            String ext = filename.substring(filename.lastIndexOf('.'));
+            if (ext.matches("\\.[A-Za-z0-9]{1,8}")) {
+                return ext;
+            }
+        }
+        return ".mp4";
+    }
+}
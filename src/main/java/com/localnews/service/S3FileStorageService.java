@@ -1,20 +1,49 @@
 package com.localnews.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class S3FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(S3FileStorageService.class);
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
     @Autowired
     private S3Client s3Client;
 
@@ -27,6 +56,43 @@ public class S3FileStorageService {
     @Value("${aws.region}")
     private String awsRegion;
 
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${aws.s3.multipart.part-size:8388608}")
+    private int partSize;
+
+    @Value("${aws.s3.multipart.threshold:16777216}")
+    private long multipartThreshold;
+
+    @Value("${aws.s3.multipart.concurrency:4}")
+    private int concurrency;
+
+    @Value("${aws.s3.multipart.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${aws.s3.multipart.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    private ExecutorService partExecutor;
+
+    @PostConstruct
+    void init() {
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+        concurrency = Math.max(1, concurrency);
+        maxAttempts = Math.max(1, maxAttempts);
+        partExecutor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "s3-part-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        partExecutor.shutdown();
+    }
+
     public String uploadFile(MultipartFile file, String folderPrefix) throws IOException {
         if (!s3Enabled) {
             throw new IllegalStateException("S3 upload is not enabled");
@@ -35,6 +101,12 @@ public class S3FileStorageService {
         String fileName = generateFileName(file.getOriginalFilename());
         String key = folderPrefix + "/" + fileName;
 
+        if (file.getSize() >= multipartThreshold) {
+            try (InputStream in = file.getInputStream()) {
+                return multipartUpload(in, key, file.getContentType(), Long.MAX_VALUE).getUrl();
+            }
+        }
+
         try {
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -45,12 +117,202 @@ public class S3FileStorageService {
 
             s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
 
-            return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, awsRegion, key);
+            return objectUrl(key);
         } catch (S3Exception e) {
             throw new IOException("Failed to upload file to S3: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Streams a body of unknown length to S3 as a multipart upload, computing a
+     * SHA-256 checksum as it goes.
+     */
+    public StoredFile uploadStream(InputStream in, String folderPrefix, String originalFilename,
+                                   String contentType, long maxBytes) throws IOException {
+        if (!s3Enabled) {
+            throw new IllegalStateException("S3 upload is not enabled");
+        }
+
+        String key = folderPrefix + "/" + generateFileName(originalFilename);
+        return multipartUpload(in, key, contentType, maxBytes);
+    }
+
+    /**
+     * Reads the stream into part-sized buffers and uploads up to
+     * {@code aws.s3.multipart.concurrency} parts at once. The caller blocks once
+     * that many parts are in flight, so memory stays bounded at
+     * {@code concurrency * part-size} per upload. Failed parts are retried with
+     * exponential backoff; if a part still fails, or the stream does, the whole
+     * upload is aborted so no orphaned parts are billed.
+     */
+    private StoredFile multipartUpload(InputStream in, String key, String contentType, long maxBytes) throws IOException {
+        String uploadId;
+        try {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .build()).uploadId();
+        } catch (SdkException e) {
+            throw new IOException("Failed to start S3 multipart upload: " + e.getMessage(), e);
+        }
+
+        MessageDigest digest = UploadStreamWriter.newSha256();
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(concurrency);
+        int allocated = 0;
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        long total = 0;
+
+        try {
+            for (int partNumber = 1; ; partNumber++) {
+                failFast(parts);
+
+                byte[] buffer = freeBuffers.poll();
+                if (buffer == null) {
+                    if (allocated < concurrency) {
+                        buffer = new byte[partSize];
+                        allocated++;
+                    } else {
+                        buffer = freeBuffers.take();
+                    }
+                }
+
+                int read = in.readNBytes(buffer, 0, buffer.length);
+                if (read == 0 && partNumber > 1) {
+                    freeBuffers.offer(buffer);
+                    break;
+                }
+                total += read;
+                if (total > maxBytes) {
+                    throw new IOException("Upload exceeds the limit of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+
+                final byte[] partBuffer = buffer;
+                final int number = partNumber;
+                parts.add(partExecutor.submit(() -> {
+                    try {
+                        return uploadPartWithRetry(key, uploadId, number, partBuffer, read, contentType);
+                    } finally {
+                        freeBuffers.offer(partBuffer);
+                    }
+                }));
+
+                if (read < buffer.length) {
+                    break;
+                }
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completedParts.add(part.get());
+            }
+            completedParts.sort(Comparator.comparing(CompletedPart::partNumber));
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+
+            return new StoredFile(objectUrl(key), total, HexFormat.of().formatHex(digest.digest()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(key, uploadId, parts);
+            throw new IOException("S3 upload interrupted", e);
+        } catch (ExecutionException e) {
+            abort(key, uploadId, parts);
+            throw new IOException("Failed to upload file to S3: " + e.getCause().getMessage(), e.getCause());
+        } catch (SdkException e) {
+            abort(key, uploadId, parts);
+            throw new IOException("Failed to upload file to S3: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            abort(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadPartWithRetry(String key, String uploadId, int partNumber,
+                                              byte[] buffer, int length, String contentType) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length, contentType))
+                        .eTag();
+                return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+            } catch (SdkException e) {
+                if (attempt >= maxAttempts || !e.retryable() && isClientError(e)) {
+                    throw e;
+                }
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            }
+        }
+    }
+
+    private static boolean isClientError(SdkException e) {
+        return e instanceof S3Exception s3 && s3.statusCode() >= 400 && s3.statusCode() < 500;
+    }
+
+    /**
+     * Surfaces a failed part while the stream is still being read, instead of
+     * consuming the rest of the body first.
+     */
+    private static void failFast(List<Future<CompletedPart>> parts) throws ExecutionException, InterruptedException {
+        for (Future<CompletedPart> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    private void abort(String key, String uploadId, List<Future<CompletedPart>> parts) {
+        for (Future<CompletedPart> part : parts) {
+            part.cancel(true);
+        }
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            // The bucket's AbortIncompleteMultipartUpload lifecycle rule cleans up anything left here
+            logger.warn("Failed to abort S3 multipart upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    public void deleteFile(String url) throws IOException {
+        String key = keyFromUrl(url);
+        if (key == null) {
+            throw new IOException("Not an object URL in bucket " + bucketName + ": " + url);
+        }
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to delete file from S3: " + e.getMessage(), e);
+        }
+    }
+
+    private String keyFromUrl(String url) {
+        String prefix = objectUrl("");
+        return url != null && url.startsWith(prefix) && url.length() > prefix.length()
+                ? url.substring(prefix.length()) : null;
+    }
+
+    private String objectUrl(String key) {
+        if (endpoint != null && !endpoint.isBlank()) {
+            return String.format("%s/%s/%s", endpoint.replaceAll("/+$", ""), bucketName, key);
+        }
+        return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, awsRegion, key);
+    }
+
     private String generateFileName(String originalFileName) {
         String extension = "";
         if (originalFileName != null && originalFileName.contains(".")) {
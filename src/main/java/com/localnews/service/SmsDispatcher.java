@@ -0,0 +1,209 @@
+package com.localnews.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound SMS queue. Callers enqueue and return at once; a dispatcher thread
+ * drains the queue, groups messages with identical text into batches of up to
+ * {@link SmsProvider#maxBatchSize()} recipients and sends them on virtual
+ * threads, never more than {@link SmsProvider#maxConcurrentRequests()} at a
+ * time. Undelivered recipients are retried with exponential backoff and jitter
+ * up to {@code sms.dispatch.max-attempts}.
+ *
+ * <p>Messages enqueued inside a transaction are held until it commits, so no
+ * SMS goes out for work that was rolled back and no DB connection is held
+ * while the provider is called.
+ */
+@Service
+public class SmsDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    @Autowired
+    private SmsProvider provider;
+
+    @Value("${sms.dispatch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${sms.dispatch.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${sms.dispatch.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    // How long the dispatcher waits for more messages before sending a partial batch
+    @Value("${sms.dispatch.batch-window-ms:50}")
+    private long batchWindowMillis;
+
+    private BlockingQueue<OutboundSms> queue;
+
+    private Semaphore providerPermits;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Thread dispatcherThread;
+
+    private static class OutboundSms {
+        final String mobileNumber;
+        final String message;
+        final int attempt;
+
+        OutboundSms(String mobileNumber, String message, int attempt) {
+            this.mobileNumber = mobileNumber;
+            this.message = message;
+            this.attempt = attempt;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        providerPermits = new Semaphore(Math.max(1, provider.maxConcurrentRequests()));
+        dispatcherThread = Thread.ofVirtual().name("sms-dispatcher").start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcherThread.interrupt();
+        executor.shutdown();
+        if (!queue.isEmpty()) {
+            logger.warn("SMS dispatcher stopped with {} messages unsent", queue.size());
+        }
+    }
+
+    /**
+     * Queues a message, after the current transaction commits if there is one.
+     *
+     * @return false if the queue is full and the message was dropped
+     */
+    public boolean enqueue(String mobileNumber, String message) {
+        OutboundSms sms = new OutboundSms(mobileNumber, message, 1);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (queue.remainingCapacity() == 0) {
+                return false;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(sms);
+                }
+            });
+            return true;
+        }
+        return offer(sms);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private boolean offer(OutboundSms sms) {
+        if (!queue.offer(sms)) {
+            logger.warn("SMS queue full; dropping message to {}", sms.mobileNumber);
+            return false;
+        }
+        return true;
+    }
+
+    private void dispatchLoop() {
+        List<OutboundSms> drained = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                drained.add(queue.take());
+                if (batchWindowMillis > 0 && provider.maxBatchSize() > 1) {
+                    Thread.sleep(batchWindowMillis);
+                }
+                queue.drainTo(drained);
+                dispatch(drained);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("SMS dispatch loop error: {}", e.getMessage());
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<OutboundSms> messages) throws InterruptedException {
+        // Same text, same attempt: one provider call for many recipients (broadcasts; OTPs differ per user)
+        Map<String, List<OutboundSms>> byMessage = new LinkedHashMap<>();
+        for (OutboundSms sms : messages) {
+            byMessage.computeIfAbsent(sms.attempt + ":" + sms.message, k -> new ArrayList<>()).add(sms);
+        }
+
+        int batchSize = Math.max(1, provider.maxBatchSize());
+        for (List<OutboundSms> group : byMessage.values()) {
+            for (int from = 0; from < group.size(); from += batchSize) {
+                List<OutboundSms> batch = new ArrayList<>(group.subList(from, Math.min(from + batchSize, group.size())));
+                providerPermits.acquire();
+                executor.execute(() -> {
+                    try {
+                        sendBatch(batch);
+                    } finally {
+                        providerPermits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void sendBatch(List<OutboundSms> batch) {
+        OutboundSms first = batch.get(0);
+        List<String> numbers = new ArrayList<>(batch.size());
+        for (OutboundSms sms : batch) {
+            numbers.add(sms.mobileNumber);
+        }
+
+        List<String> failed;
+        try {
+            failed = provider.send(numbers, first.message);
+        } catch (Exception e) {
+            logger.warn("SMS batch of {} failed (attempt {}): {}", numbers.size(), first.attempt, e.getMessage());
+            failed = numbers;
+        }
+        if (!failed.isEmpty()) {
+            scheduleRetry(failed, first);
+        }
+    }
+
+    private void scheduleRetry(List<String> failed, OutboundSms previous) {
+        if (previous.attempt >= maxAttempts) {
+            logger.error("Giving up on SMS to {} recipients after {} attempts", failed.size(), previous.attempt);
+            return;
+        }
+        // Exponential backoff with jitter, so a provider outage is not hit by every retry at once
+        long ceiling = retryBackoffMillis << (previous.attempt - 1);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        executor.execute(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+                for (String mobileNumber : failed) {
+                    offer(new OutboundSms(mobileNumber, previous.message, previous.attempt + 1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
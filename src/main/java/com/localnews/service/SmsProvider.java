@@ -0,0 +1,27 @@
+package com.localnews.service;
+
+import java.util.List;
+
+/**
+ * Sends text messages through an SMS gateway (e.g. AWS SNS, MSG91, Twilio).
+ */
+public interface SmsProvider {
+
+    /**
+     * Largest number of recipients the provider accepts for one message in one
+     * call; 1 for providers without a multi-recipient API.
+     */
+    int maxBatchSize();
+
+    /**
+     * Calls the provider allows in flight at once; the dispatcher never exceeds it.
+     */
+    int maxConcurrentRequests();
+
+    /**
+     * Sends the same message to every number in the batch.
+     *
+     * @return the numbers that could not be delivered and may be retried
+     */
+    List<String> send(List<String> mobileNumbers, String message);
+}
@@ -1,6 +1,6 @@
 package com.localnews.service;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,68 +10,22 @@ public class SmsService {
 
     private static final Logger logger = LoggerFactory.getLogger(SmsService.class);
 
-    @Value("${sms.provider.enabled:false}")
-    private boolean smsEnabled;
-
-    @Value("${sms.provider.api.key:}")
-    private String apiKey;
-
-    @Value("${sms.provider.sender.id:}")
-    private String senderId;
+    @Autowired
+    private SmsDispatcher smsDispatcher;
 
+    /**
+     * Queues the OTP message and returns without waiting for the provider;
+     * delivery and retries happen on the {@link SmsDispatcher}.
+     *
+     * @return false if the message could not be queued
+     */
     public boolean sendOtp(String mobileNumber, String otp) {
-        try {
-            if (!smsEnabled) {
-                // For development/testing - log OTP instead of sending SMS
-                logger.info("SMS Service Disabled. OTP for {}: {}", mobileNumber, otp);
-                return true;
-            }
-
-            // TODO: Implement actual SMS sending logic based on your SMS provider
-            // Example providers: AWS SNS, Twilio, MSG91, etc.
-
-            String message = String.format("Your OTP for LocalNews verification is: %s. Valid for 10 minutes.", otp);
-
-            // Simulate SMS sending
-            logger.info("Sending OTP {} to mobile number: {}", otp, mobileNumber);
-
-            // Replace this with actual SMS API call
-            boolean sent = sendSmsViaProvider(mobileNumber, message);
-
-            if (sent) {
-                logger.info("OTP sent successfully to: {}", mobileNumber);
-            } else {
-                logger.error("Failed to send OTP to: {}", mobileNumber);
-            }
-
-            return sent;
-
-        } catch (Exception e) {
-            logger.error("Error sending SMS to {}: {}", mobileNumber, e.getMessage());
-            return false;
-        }
-    }
-
-    private boolean sendSmsViaProvider(String mobileNumber, String message) {
-        // TODO: Implement based on your SMS provider
-        // For now, return true for development
-
-        if (!smsEnabled) {
-            return true; // Always succeed in development mode
+        String message = String.format("Your OTP for LocalNews verification is: %s. Valid for 10 minutes.", otp);
+        boolean queued = smsDispatcher.enqueue(mobileNumber, message);
+        if (!queued) {
+            logger.error("Failed to queue OTP for: {}", mobileNumber);
         }
-
-        // Example implementation for different providers:
-
-        // AWS SNS Implementation:
-        // return sendViaSNS(mobileNumber, message);
-
-        // Twilio Implementation:
-        // return sendViaTwilio(mobileNumber, message);
-
-        // MSG91 Implementation:
-        // return sendViaMSG91(mobileNumber, message);
-
-        return true; // Placeholder
+        return queued;
     }
 
     public boolean sendPushNotification(String deviceToken, String title, String body) {
@@ -0,0 +1,23 @@
+package com.localnews.service;
+
+/**
+ * Result of writing an upload to its final location.
+ */
+public class StoredFile {
+
+    private final String url;
+    private final long size;
+    private final String sha256;
+
+    public StoredFile(String url, long size, String sha256) {
+        this.url = url;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public String getUrl() { return url; }
+
+    public long getSize() { return size; }
+
+    public String getSha256() { return sha256; }
+}
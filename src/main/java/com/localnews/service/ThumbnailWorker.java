@@ -0,0 +1,195 @@
+package com.localnews.service;
+
+import com.localnews.entity.ThumbnailJob;
+import com.localnews.repository.MediaRepository;
+import com.localnews.repository.ThumbnailJobJdbcRepository;
+import com.localnews.repository.ThumbnailJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates media thumbnails off the request thread. Jobs live in the
+ * {@code thumbnail_jobs} table so they survive restarts; a fixed pool of
+ * workers claims them one at a time. Uploads wake a worker immediately and a
+ * scheduled poll picks up anything left over (retries, jobs requeued after a
+ * crash, jobs enqueued by another instance).
+ */
+@Service
+public class ThumbnailWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailWorker.class);
+
+    private static final int THUMBNAIL_WIDTH = 200;
+    private static final int THUMBNAIL_HEIGHT = 200;
+
+    @Value("${upload.dir}")
+    private String uploadDir;
+
+    @Value("${thumbnail.workers:2}")
+    private int workerCount;
+
+    @Value("${thumbnail.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${thumbnail.job-timeout-seconds:300}")
+    private long jobTimeoutSeconds;
+
+    @Autowired
+    private ThumbnailJobRepository thumbnailJobRepository;
+
+    @Autowired
+    private ThumbnailJobJdbcRepository thumbnailJobJdbcRepository;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private VideoFrameDecoder frameDecoder;
+
+    private ExecutorService workers;
+
+    // One permit per worker thread, so the executor queue never grows
+    private Semaphore idleWorkers;
+
+    @PostConstruct
+    void init() {
+        workerCount = Math.max(1, workerCount);
+        idleWorkers = new Semaphore(workerCount);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "thumbnail-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Anything still RUNNING is requeued by requeueStale on the next start
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues a thumbnail for {@code mediaId} and wakes an idle worker.
+     */
+    public void enqueue(Long mediaId, String sourcePath, String contentType) {
+        thumbnailJobRepository.save(new ThumbnailJob(mediaId, sourcePath, contentType));
+        wakeWorker();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        poll();
+    }
+
+    @Scheduled(fixedDelayString = "${thumbnail.poll-interval-ms:10000}")
+    public void poll() {
+        int requeued = thumbnailJobRepository.requeueStale(jobTimeoutSeconds);
+        if (requeued > 0) {
+            logger.info("Requeued {} stale thumbnail jobs", requeued);
+        }
+
+        while (wakeWorker()) {
+            // keep starting workers until every thread is busy
+        }
+    }
+
+    private boolean wakeWorker() {
+        if (!idleWorkers.tryAcquire()) {
+            return false;
+        }
+        try {
+            workers.execute(this::drainQueue);
+            return true;
+        } catch (RuntimeException e) {
+            idleWorkers.release();
+            return false;
+        }
+    }
+
+    private void drainQueue() {
+        try {
+            ThumbnailJob job;
+            while (!Thread.currentThread().isInterrupted() && (job = thumbnailJobJdbcRepository.claimNext()) != null) {
+                process(job);
+            }
+        } catch (Exception e) {
+            logger.error("Thumbnail worker stopped: {}", e.getMessage(), e);
+        } finally {
+            idleWorkers.release();
+        }
+    }
+
+    private void process(ThumbnailJob job) {
+        try {
+            String thumbnailPath = generate(Paths.get(job.getSourcePath()), job.getContentType());
+            if (thumbnailPath != null) {
+                mediaRepository.updateThumbnailPath(job.getMediaId(), thumbnailPath);
+            }
+            thumbnailJobRepository.finish(job.getId(), ThumbnailJob.Status.DONE, null);
+        } catch (Exception e) {
+            ThumbnailJob.Status next = job.getAttempts() >= maxAttempts
+                    ? ThumbnailJob.Status.FAILED : ThumbnailJob.Status.PENDING;
+            String error = String.valueOf(e.getMessage());
+            thumbnailJobRepository.finish(job.getId(), next,
+                    error.length() > 500 ? error.substring(0, 500) : error);
+            logger.warn("Thumbnail job {} failed (attempt {}): {}", job.getId(), job.getAttempts(), error);
+        }
+    }
+
+    /**
+     * @return the stored thumbnail path, or null when the file type has no thumbnail
+     */
+    private String generate(Path originalPath, String contentType) throws Exception {
+        Path thumbnailDir = Paths.get(uploadDir, "thumbnails");
+        Files.createDirectories(thumbnailDir);
+        String fileName = originalPath.getFileName().toString();
+        Path thumbnailPath = thumbnailDir.resolve("thumb_" + fileName);
+
+        if (contentType != null && contentType.startsWith("image/")) {
+            BufferedImage decoded = ImageThumbnails.readSubsampled(originalPath, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            if (decoded == null) {
+                return null;
+            }
+            BufferedImage thumbnail = ImageThumbnails.fitWithin(decoded, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            ImageIO.write(thumbnail, ImageThumbnails.imageFormat(fileName), thumbnailPath.toFile());
+            return thumbnailPath.toString();
+        } else if (contentType != null && contentType.startsWith("video/")) {
+            BufferedImage videoThumbnail = posterFrame(originalPath);
+            videoThumbnail = videoThumbnail != null
+                    ? ImageThumbnails.fitWithin(videoThumbnail, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT)
+                    : ImageThumbnails.videoPlaceholder(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            ImageIO.write(videoThumbnail, "png", thumbnailPath.toFile());
+            return thumbnailPath.toString();
+        }
+        return null;
+    }
+
+    private BufferedImage posterFrame(Path video) {
+        try {
+            Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(video);
+            return info.hasVideoTrack() ? frameDecoder.decodePosterFrame(video, info) : null;
+        } catch (Exception e) {
+            // Not an MP4/MOV, or the decoder failed: fall back to the placeholder
+            return null;
+        }
+    }
+}
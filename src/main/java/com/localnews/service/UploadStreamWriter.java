@@ -0,0 +1,111 @@
+package com.localnews.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Copies a request body straight to its final file in a single pass, using a
+ * small pool of fixed-size direct buffers and computing a SHA-256 checksum on
+ * the way. The file is written under a temporary name and moved into place
+ * atomically, so readers never see a partial upload.
+ */
+@Component
+public class UploadStreamWriter {
+
+    @Value("${upload.stream.buffer-size:65536}")
+    private int bufferSize;
+
+    private final BlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(16);
+
+    /**
+     * @param url public URL the stored file will be served under
+     * @throws IOException if the stream fails or exceeds {@code maxBytes}; the
+     *                     partial file is removed
+     */
+    public StoredFile write(InputStream in, Path target, String url, long maxBytes) throws IOException {
+        Path partFile = target.resolveSibling(target.getFileName() + ".part");
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = acquireBuffer();
+        long written = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(partFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                written += buffer.remaining();
+                if (written > maxBytes) {
+                    throw new IOException("Upload exceeds the limit of " + maxBytes + " bytes");
+                }
+
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(partFile);
+            throw e;
+        } finally {
+            releaseBuffer(buffer);
+        }
+
+        Files.move(partFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new StoredFile(url, written, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * SHA-256 of a stream, read through the same pooled buffers.
+     */
+    public String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = acquireBuffer();
+        try (ReadableByteChannel source = Channels.newChannel(in)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void releaseBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        bufferPool.offer(buffer);
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
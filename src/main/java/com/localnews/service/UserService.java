@@ -23,6 +23,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
     // Updated method for mobile-based registration (used by AuthService)
     public User createUser(String mobileNumber, District district) {
         if (userRepository.existsByMobileNumber(mobileNumber)) {
@@ -34,7 +37,9 @@ public class UserService {
         user.setDistrict(district);
         user.setIsVerified(false);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        districtStatsService.userCreated(district, false);
+        return saved;
     }
 
     // Get user by mobile number
@@ -49,9 +54,13 @@ public class UserService {
 
     // Update user verification status
     public User verifyUser(User user, District district) {
+        Long previousDistrictId = user.getDistrict() != null ? user.getDistrict().getId() : null;
+        boolean wasVerified = Boolean.TRUE.equals(user.getIsVerified());
         user.setIsVerified(true);
         user.setDistrict(district);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        districtStatsService.userChanged(previousDistrictId, wasVerified, district, true);
+        return saved;
     }
 
     // Legacy methods for backward compatibility (deprecated)
@@ -81,7 +90,9 @@ public class UserService {
         user.setDistrict(district);
         user.setIsVerified(true); // Auto-verify for legacy registration
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        districtStatsService.userCreated(district, true);
+        return saved;
     }
 
     @Deprecated
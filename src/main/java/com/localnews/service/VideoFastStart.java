@@ -0,0 +1,53 @@
+package com.localnews.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Moves {@code moov} to the front of a freshly stored local video before its
+ * URL is indexed or handed out. Videos are served as immutable, so the bytes
+ * behind a published URL must not change afterwards, and the checksum the
+ * content index keys on has to be that of the rewritten file.
+ */
+@Component
+public class VideoFastStart {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoFastStart.class);
+
+    @Value("${video.ingest.faststart:true}")
+    private boolean enabled;
+
+    @Autowired
+    private UploadStreamWriter uploadStreamWriter;
+
+    /**
+     * A file that cannot be rewritten is kept as uploaded; the rewrite only
+     * replaces it once the new copy is complete.
+     *
+     * @return {@code stored} unchanged, or with the new size and checksum if
+     *         {@code file} was rewritten
+     */
+    public StoredFile prepare(StoredFile stored, Path file) throws IOException {
+        try {
+            if (!enabled || !Mp4FastStart.rewrite(file)) {
+                return stored;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Keeping {} as uploaded, fast-start rewrite failed: {}", file.getFileName(), e.getMessage());
+            return stored;
+        }
+        String sha256;
+        try (InputStream in = Files.newInputStream(file)) {
+            sha256 = uploadStreamWriter.sha256(in);
+        }
+        return new StoredFile(stored.getUrl(), Files.size(file), sha256);
+    }
+}
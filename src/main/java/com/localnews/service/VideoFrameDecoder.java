@@ -0,0 +1,20 @@
+package com.localnews.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Produces a poster frame for an uploaded video. Selected with
+ * {@code video.poster.decoder}: {@code placeholder} (default, no external
+ * dependencies) or {@code ffmpeg}.
+ */
+public interface VideoFrameDecoder {
+
+    /**
+     * @param video the local video file
+     * @param info  container metadata, including where the first keyframe sits
+     * @return the decoded frame, or null if this decoder cannot produce one
+     */
+    BufferedImage decodePosterFrame(Path video, Mp4BoxParser.Mp4Info info) throws IOException;
+}
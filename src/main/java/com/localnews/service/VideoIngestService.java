@@ -0,0 +1,133 @@
+package com.localnews.service;
+
+import com.localnews.entity.Video;
+import com.localnews.repository.VideoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Post-upload processing for videos, run off the request thread: reads the
+ * real duration from the MP4 container and stores a poster frame, then fills
+ * {@code Video.duration} and {@code Video.thumbnailUrl}. Only files in the
+ * local upload directory are processed. The file itself is never modified
+ * here; {@link VideoFastStart} has already run before its URL was published.
+ */
+@Service
+public class VideoIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoIngestService.class);
+
+    private static final int POSTER_MAX_WIDTH = 640;
+    private static final int POSTER_MAX_HEIGHT = 640;
+
+    @Value("${upload.dir}")
+    private String uploadDir;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoFrameDecoder frameDecoder;
+
+    @Autowired
+    private DistrictFeedCache districtFeedCache;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Parsing and decoding are I/O and CPU heavy; don't run every upload at once
+    private final Semaphore permits;
+
+    public VideoIngestService(@Value("${video.ingest.max-concurrent:2}") int maxConcurrent) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues {@code video} for processing. Returns immediately.
+     */
+    public void submit(Video video) {
+        Path file = localFile(video.getVideoUrl());
+        if (file == null) {
+            return;
+        }
+        Long videoId = video.getId();
+        Long districtId = video.getDistrict() != null ? video.getDistrict().getId() : null;
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                ingest(videoId, districtId, file);
+            } catch (Exception e) {
+                logger.warn("Ingest failed for video {}: {}", videoId, e.getMessage());
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    void ingest(Long videoId, Long districtId, Path file) throws Exception {
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(file);
+        Integer duration = info.getDurationSeconds() > 0 ? info.getDurationSeconds() : null;
+
+        String posterUrl = null;
+        if (info.hasVideoTrack()) {
+            BufferedImage frame = frameDecoder.decodePosterFrame(file, info);
+            if (frame != null) {
+                posterUrl = storePoster(file, frame);
+            }
+        }
+
+        videoRepository.updateIngestMetadata(videoId, duration, posterUrl);
+        if (districtId != null) {
+            districtFeedCache.invalidateDistrict(districtId);
+        }
+        logger.debug("Ingested video {}: duration={}s poster={}", videoId, duration, posterUrl);
+    }
+
+    private String storePoster(Path video, BufferedImage frame) throws Exception {
+        String name = video.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String posterName = "poster_" + (dot > 0 ? name.substring(0, dot) : name) + ".jpg";
+
+        Path target = Paths.get(uploadDir).resolve(posterName);
+        Path tmp = target.resolveSibling(posterName + ".tmp");
+        BufferedImage poster = ImageThumbnails.fitWithin(frame, POSTER_MAX_WIDTH, POSTER_MAX_HEIGHT);
+        ImageIO.write(poster, "jpg", tmp.toFile());
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return "/uploads/" + posterName;
+    }
+
+    /**
+     * Maps a {@code /uploads/...} URL to the file on disk; null for S3 or external URLs.
+     */
+    Path localFile(String videoUrl) {
+        if (videoUrl == null || !videoUrl.startsWith("/uploads/")) {
+            return null;
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(videoUrl.substring("/uploads/".length())).normalize();
+        return file.startsWith(root) && Files.isRegularFile(file) ? file : null;
+    }
+}
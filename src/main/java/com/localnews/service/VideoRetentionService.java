@@ -0,0 +1,151 @@
+package com.localnews.service;
+
+import com.localnews.repository.VideoRetentionJdbcRepository;
+import com.localnews.repository.VideoRetentionJdbcRepository.ArchivedVideo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Enforces {@code video.retention.days}. Expired videos are soft-deleted
+ * (deactivated and stamped with {@code archived_at}), then their comments and
+ * interactions are moved to the archive tables. Everything runs in chunks of
+ * {@code video.retention.chunk-size} rows, each its own short statement, with
+ * a pause between chunks so live traffic is never starved.
+ *
+ * <p>Stored files are released in the background once a chunk of videos is
+ * archived. Comments and interactions are moved by joining on
+ * {@code archived_at}, so a run that stops half way is finished by the next.
+ */
+@Service
+public class VideoRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoRetentionService.class);
+
+    @Value("${video.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${video.retention.days:180}")
+    private long retentionDays;
+
+    @Value("${video.retention.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${video.retention.pause-ms:200}")
+    private long pauseMillis;
+
+    @Autowired
+    private VideoRetentionJdbcRepository retentionRepository;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
+
+    @Autowired
+    private DistrictStatsService districtStatsService;
+
+    @Autowired
+    private DistrictFeedCache districtFeedCache;
+
+    private final ExecutorService storageReleaser = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PreDestroy
+    void shutdown() {
+        storageReleaser.shutdown();
+    }
+
+    @Scheduled(cron = "${video.retention.cron:0 15 4 * * *}")
+    public void enforceRetention() {
+        if (!enabled || retentionDays <= 0) {
+            return;
+        }
+        // A slow run must not overlap the next trigger
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Video retention is still running; skipping this trigger");
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int videos = archiveExpiredVideos(cutoff);
+            int comments = inChunks(retentionRepository::moveCommentsOfArchivedVideos);
+            int interactions = inChunks(retentionRepository::moveInteractionsOfArchivedVideos);
+
+            if (videos + comments + interactions > 0) {
+                logger.info("Video retention archived {} videos, {} comments and {} interactions",
+                        videos, comments, interactions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Video retention failed: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveExpiredVideos(LocalDateTime cutoff) throws InterruptedException {
+        Set<Long> districts = new HashSet<>();
+        int total = 0;
+        List<ArchivedVideo> batch;
+        do {
+            batch = retentionRepository.archiveExpired(cutoff, chunkSize);
+            for (ArchivedVideo video : batch) {
+                districts.add(video.getDistrictId());
+                districtStatsService.videoArchived(video.getDistrictId(), video.wasActive());
+            }
+            releaseStorage(batch);
+            total += batch.size();
+            pause(batch.size());
+        } while (batch.size() >= chunkSize);
+
+        districts.forEach(districtFeedCache::invalidateDistrict);
+        return total;
+    }
+
+    private int inChunks(IntUnaryOperator moveChunk) throws InterruptedException {
+        int total = 0;
+        int moved;
+        do {
+            moved = moveChunk.applyAsInt(chunkSize);
+            total += moved;
+            pause(moved);
+        } while (moved >= chunkSize);
+        return total;
+    }
+
+    private void releaseStorage(List<ArchivedVideo> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        storageReleaser.execute(() -> {
+            for (ArchivedVideo video : batch) {
+                try {
+                    contentStore.release(video.getVideoUrl());
+                    contentStore.release(video.getThumbnailUrl());
+                } catch (Exception e) {
+                    logger.warn("Failed to release storage for archived video {}: {}", video.getId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void pause(int rowsTouched) throws InterruptedException {
+        if (rowsTouched > 0 && pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
@@ -1,27 +1,34 @@
 package com.localnews.service;
 
+import com.localnews.dto.FeedCursor;
 import com.localnews.dto.VideoDto;
+import com.localnews.dto.VideoFeedSlice;
 import com.localnews.entity.*;
 import com.localnews.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class VideoService {
 
-    @Autowired
-    private VideoRepository videoRepository;
+    private static final int MAX_FEED_PAGE_SIZE = 100;
 
     @Autowired
-    private UserRepository userRepository;
+    private VideoRepository videoRepository;
 
     @Autowired
     private UserVideoInteractionRepository interactionRepository;
@@ -30,66 +37,125 @@ public class VideoService {
     private CommentRepository commentRepository;
 
     @Autowired
-    private UserDeviceRepository userDeviceRepository;
+    private PushNotificationDispatcher pushNotificationDispatcher;
+
+    @Autowired
+    private WatchEventBuffer watchEventBuffer;
+
+    @Autowired
+    private VideoInteractionJdbcRepository interactionJdbcRepository;
+
+    @Autowired
+    private DistrictFeedCache districtFeedCache;
 
     @Autowired
-    private SmsService smsService;
+    private DistrictStatsService districtStatsService;
+
+    @Autowired
+    private ContentAddressedStore contentStore;
 
     public Page<VideoDto> getVideoFeed(User user, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
+        Long districtId = user.getDistrict() != null ? user.getDistrict().getId() : null;
+
+        // The first pages of a district are served from the shared feed cache
+        DistrictFeedCache.Snapshot snapshot = districtFeedCache.get(districtId, limit -> loadFeedSnapshot(districtId, limit));
+        List<VideoDto> cached = snapshot.slice((int) pageable.getOffset(), size);
+        if (cached != null) {
+            overlayInteractions(cached, user);
+            return new PageImpl<>(cached, pageable, snapshot.getTotalElements());
+        }
 
         // Get videos in LRU order (most recent first)
         Page<Video> videos;
 
-        if (user.getDistrict() != null) {
+        if (districtId != null) {
             // Show videos from user's district first, then others
-            videos = videoRepository.findByDistrictIdAndIsActiveTrueOrderByCreatedAtDesc(
-                user.getDistrict().getId(), pageable);
+            videos = videoRepository.findByDistrictIdAndIsActiveTrueOrderByCreatedAtDesc(districtId, pageable);
         } else {
             videos = videoRepository.findAllActiveVideosOrderByCreatedAtDesc(pageable);
         }
 
-        return videos.map(video -> convertToVideoDto(video, user));
+        List<VideoDto> dtos = hydrateVideos(videos.getContent(), user);
+        return new PageImpl<>(dtos, videos.getPageable(), videos.getTotalElements());
+    }
+
+    /**
+     * Cursor-based feed page. Rows are located by (createdAt, id) so deep pages
+     * cost the same as the first one, and no total count is computed.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public VideoFeedSlice getVideoFeedAfter(User user, String cursor, int size) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        Long districtId = user.getDistrict() != null ? user.getDistrict().getId() : null;
+
+        // One extra row tells us whether another page exists
+        DistrictFeedCache.Snapshot snapshot = districtFeedCache.get(districtId, limit -> loadFeedSnapshot(districtId, limit));
+        List<VideoDto> dtos = snapshot.after(after, pageSize + 1);
+
+        if (dtos == null) {
+            Limit limit = Limit.of(pageSize + 1);
+            List<Video> videos;
+            if (districtId != null) {
+                videos = after == null
+                    ? videoRepository.findDistrictFeedFirst(districtId, limit)
+                    : videoRepository.findDistrictFeedAfter(districtId, after.getCreatedAt(), after.getId(), limit);
+            } else {
+                videos = after == null
+                    ? videoRepository.findActiveFeedFirst(limit)
+                    : videoRepository.findActiveFeedAfter(after.getCreatedAt(), after.getId(), limit);
+            }
+            dtos = videos.stream().map(this::toVideoDto).collect(Collectors.toList());
+        }
+
+        String nextCursor = null;
+        if (dtos.size() > pageSize) {
+            dtos = dtos.subList(0, pageSize);
+            VideoDto last = dtos.get(dtos.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        overlayInteractions(dtos, user);
+        return new VideoFeedSlice(dtos, nextCursor);
+    }
+
+    private DistrictFeedCache.Snapshot loadFeedSnapshot(Long districtId, int limit) {
+        List<Video> videos;
+        long totalElements;
+        if (districtId != null) {
+            videos = videoRepository.findDistrictFeedFirst(districtId, Limit.of(limit));
+            totalElements = videoRepository.countByDistrictIdAndIsActiveTrue(districtId);
+        } else {
+            videos = videoRepository.findActiveFeedFirst(Limit.of(limit));
+            totalElements = videoRepository.countActiveVideos();
+        }
+        return new DistrictFeedCache.Snapshot(
+            videos.stream().map(this::toVideoDto).collect(Collectors.toList()), totalElements);
     }
 
     public Optional<VideoDto> getVideoById(Long videoId, User user) {
         Optional<Video> videoOpt = videoRepository.findById(videoId);
 
         if (videoOpt.isPresent() && videoOpt.get().getIsActive()) {
-            return Optional.of(convertToVideoDto(videoOpt.get(), user));
+            return Optional.of(hydrateVideos(List.of(videoOpt.get()), user).get(0));
         }
 
         return Optional.empty();
     }
 
-    @Transactional
+    /**
+     * Records a watch ping. The write is buffered and applied in batches by
+     * {@link WatchEventBuffer}, so watch counts trail by the flush interval.
+     */
     public boolean recordWatch(Long videoId, User user, Integer watchDuration) {
         try {
-            Optional<Video> videoOpt = videoRepository.findById(videoId);
-            if (videoOpt.isEmpty()) {
+            if (!videoRepository.existsById(videoId)) {
                 return false;
             }
 
-            Video video = videoOpt.get();
-
-            // Find or create interaction record
-            UserVideoInteraction interaction = interactionRepository.findByUserAndVideo(user, video)
-                .orElse(new UserVideoInteraction(user, video));
-
-            // Update watch status and duration
-            if (!interaction.getHasWatched()) {
-                interaction.setHasWatched(true);
-                // Increment video watch count
-                video.setWatchCount(video.getWatchCount() + 1);
-                videoRepository.save(video);
-            }
-
-            // Update watch duration (keep the maximum duration watched)
-            if (watchDuration > interaction.getWatchDuration()) {
-                interaction.setWatchDuration(watchDuration);
-            }
-
-            interactionRepository.save(interaction);
+            watchEventBuffer.record(user.getId(), videoId, watchDuration);
             return true;
 
         } catch (Exception e) {
@@ -97,6 +163,10 @@ public class VideoService {
         }
     }
 
+    /**
+     * Toggles the user's like with one atomic upsert on the interaction row and
+     * a matching in-place increment or decrement of the video's like count.
+     */
     @Transactional
     public VideoDto toggleLike(Long videoId, User user) {
         Optional<Video> videoOpt = videoRepository.findById(videoId);
@@ -104,29 +174,50 @@ public class VideoService {
             return null;
         }
 
-        Video video = videoOpt.get();
+        boolean liked = interactionJdbcRepository.toggleLike(user.getId(), videoId);
+        int likeCount = interactionJdbcRepository.adjustLikeCount(videoId, liked ? 1 : -1);
 
-        // Find or create interaction record
-        UserVideoInteraction interaction = interactionRepository.findByUserAndVideo(user, video)
-            .orElse(new UserVideoInteraction(user, video));
+        VideoDto dto = toVideoDto(videoOpt.get());
+        dto.setLikeCount(likeCount);
+        dto.setHasLiked(liked);
+        return dto;
+    }
 
-        boolean wasLiked = interaction.getHasLiked();
-        interaction.setHasLiked(!wasLiked);
+    /**
+     * Builds feed DTOs for a page of videos in a fixed number of round trips:
+     * districts are expected to be fetched with the videos, the caller's
+     * interactions come from one IN query and comment counts from the
+     * denormalized {@code comment_count} column.
+     */
+    private List<VideoDto> hydrateVideos(List<Video> videos, User user) {
+        List<VideoDto> dtos = videos.stream().map(this::toVideoDto).collect(Collectors.toList());
+        overlayInteractions(dtos, user);
+        return dtos;
+    }
 
-        // Update video like count
-        if (wasLiked) {
-            video.setLikeCount(Math.max(0, video.getLikeCount() - 1));
-        } else {
-            video.setLikeCount(video.getLikeCount() + 1);
+    // Sets the per-user fields (hasLiked, hasWatched) with one IN query
+    private void overlayInteractions(List<VideoDto> dtos, User user) {
+        if (user == null || dtos.isEmpty()) {
+            return;
         }
 
-        interactionRepository.save(interaction);
-        videoRepository.save(video);
+        List<Long> videoIds = dtos.stream().map(VideoDto::getId).collect(Collectors.toList());
+
+        Map<Long, UserVideoInteraction> interactions = new HashMap<>();
+        for (UserVideoInteraction interaction : interactionRepository.findByUserAndVideoIds(user, videoIds)) {
+            interactions.put(interaction.getVideo().getId(), interaction);
+        }
 
-        return convertToVideoDto(video, user);
+        for (VideoDto dto : dtos) {
+            UserVideoInteraction interaction = interactions.get(dto.getId());
+            if (interaction != null) {
+                dto.setHasLiked(Boolean.TRUE.equals(interaction.getHasLiked()));
+                dto.setHasWatched(Boolean.TRUE.equals(interaction.getHasWatched()));
+            }
+        }
     }
 
-    private VideoDto convertToVideoDto(Video video, User user) {
+    private VideoDto toVideoDto(Video video) {
         VideoDto dto = new VideoDto();
         dto.setId(video.getId());
         dto.setTitle(video.getTitle());
@@ -136,6 +227,7 @@ public class VideoService {
         dto.setDuration(video.getDuration());
         dto.setLikeCount(video.getLikeCount());
         dto.setWatchCount(video.getWatchCount());
+        dto.setCommentCount(video.getCommentCount() != null ? video.getCommentCount() : 0);
         dto.setCreatedAt(video.getCreatedAt());
 
         if (video.getDistrict() != null) {
@@ -143,49 +235,105 @@ public class VideoService {
             dto.setDistrictId(video.getDistrict().getId());
         }
 
-        // Get user interaction data
-        if (user != null) {
-            Optional<UserVideoInteraction> interaction =
-                interactionRepository.findByUserAndVideo(user, video);
+        return dto;
+    }
+
+    @Transactional
+    public Comment addComment(Video video, User user, String commentText) {
+        Comment comment = commentRepository.save(new Comment(user, video, commentText));
+        if (Boolean.TRUE.equals(comment.getIsVisibleToUser())) {
+            videoRepository.adjustCommentCount(video.getId(), 1);
+        }
+        return comment;
+    }
+
+    @Transactional
+    public boolean setCommentVisibility(Long commentId, boolean visible) {
+        Optional<Comment> commentOpt = commentRepository.findById(commentId);
+        if (commentOpt.isEmpty()) {
+            return false;
+        }
 
-            if (interaction.isPresent()) {
-                dto.setHasLiked(interaction.get().getHasLiked());
-                dto.setHasWatched(interaction.get().getHasWatched());
+        Comment comment = commentOpt.get();
+        boolean wasVisible = Boolean.TRUE.equals(comment.getIsVisibleToUser());
+        if (wasVisible != visible) {
+            comment.setIsVisibleToUser(visible);
+            commentRepository.save(comment);
+            if (comment.getVideo() != null) {
+                videoRepository.adjustCommentCount(comment.getVideo().getId(), visible ? 1 : -1);
             }
         }
+        return true;
+    }
 
-        // Get comment count (only visible comments)
-        Long commentCount = commentRepository.countByVideoAndIsVisibleToUserTrue(video);
-        dto.setCommentCount(commentCount.intValue());
+    @Transactional
+    public boolean deleteComment(Long commentId) {
+        Optional<Comment> commentOpt = commentRepository.findById(commentId);
+        if (commentOpt.isEmpty()) {
+            return false;
+        }
 
-        return dto;
+        Comment comment = commentOpt.get();
+        commentRepository.delete(comment);
+        if (comment.getVideo() != null && Boolean.TRUE.equals(comment.getIsVisibleToUser())) {
+            videoRepository.adjustCommentCount(comment.getVideo().getId(), -1);
+        }
+        return true;
     }
 
+    /**
+     * Deletes a video with its comments and likes/watches in one transaction.
+     * Its stored files are released after commit, unless the retention job
+     * archived the video and already released them.
+     *
+     * @return false if there is no such video
+     */
     @Transactional
-    public void notifyNewVideo(Video video) {
-        try {
-            // Get all active devices for users in the same district
-            List<User> districtUsers = video.getDistrict() != null ?
-                userRepository.findByDistrictAndIsVerifiedTrue(video.getDistrict()) :
-                userRepository.findAll().stream()
-                    .filter(User::getIsVerified)
-                    .collect(Collectors.toList());
-
-            for (User user : districtUsers) {
-                List<UserDevice> devices = userDeviceRepository.findActiveDevicesByUser(user);
-
-                for (UserDevice device : devices) {
-                    smsService.sendPushNotification(
-                        device.getDeviceToken(),
-                        "New Video Available!",
-                        video.getTitle()
-                    );
+    public boolean deleteVideo(Long videoId) {
+        Optional<Video> videoOpt = videoRepository.findById(videoId);
+        if (videoOpt.isEmpty()) {
+            return false;
+        }
+
+        Video video = videoOpt.get();
+        Long districtId = video.getDistrict() != null ? video.getDistrict().getId() : null;
+
+        // Delete associated comments and likes/watches first
+        commentRepository.deleteByVideo(video);
+        interactionRepository.deleteByVideo(video);
+        videoRepository.delete(video);
+
+        // Applied after commit by the stats service
+        districtStatsService.videoRemoved(video);
+
+        boolean releaseStorage = video.getArchivedAt() == null;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                districtFeedCache.invalidateDistrict(districtId);
+                // Stored files are shared by content; only the last reference deletes them
+                if (releaseStorage) {
+                    contentStore.release(video.getVideoUrl());
+                    contentStore.release(video.getThumbnailUrl());
                 }
             }
+        });
+        return true;
+    }
 
+    /**
+     * Starts a background push fan-out for a newly posted video.
+     *
+     * @return the fan-out job id, for progress lookups
+     */
+    public String notifyNewVideo(Video video) {
+        try {
+            Long districtId = video.getDistrict() != null ? video.getDistrict().getId() : null;
+            return pushNotificationDispatcher.dispatch(districtId, "New Video Available!", video.getTitle()).getJobId();
         } catch (Exception e) {
             // Log error but don't fail the video creation
-            System.err.println("Error sending push notifications: " + e.getMessage());
+            System.err.println("Error starting push notifications: " + e.getMessage());
+            return null;
         }
     }
 }
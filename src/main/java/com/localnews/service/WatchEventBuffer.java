@@ -0,0 +1,193 @@
+package com.localnews.service;
+
+import com.localnews.repository.VideoInteractionJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for watch pings. Events are coalesced in memory per
+ * (user, video), keeping the longest watch duration, and flushed to the
+ * database in batches on a short interval instead of one transaction per ping.
+ *
+ * Entries are striped by video id so a flush writes one stripe per transaction.
+ * When the number of pending entries reaches the configured cap the recording
+ * thread flushes inline, which bounds memory and pushes back on callers. After
+ * a failed flush, inline flushes pause for a backoff period and pings for new
+ * (user, video) pairs past the cap are dropped; the scheduled flush keeps
+ * retrying in the meantime.
+ */
+@Component
+public class WatchEventBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchEventBuffer.class);
+
+    @Autowired
+    private VideoInteractionJdbcRepository interactionJdbcRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${video.watch.buffer-stripes:16}")
+    private int stripeCount;
+
+    @Value("${video.watch.buffer-max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${video.watch.flush-retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    private ConcurrentHashMap<WatchKey, Integer>[] stripes;
+
+    private final AtomicInteger pendingEntries = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Set by a failed flush, cleared by the next one that succeeds
+    private volatile boolean flushFailing;
+    private volatile long flushFailedAt;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        stripes = new ConcurrentHashMap[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public void record(Long userId, Long videoId, int watchDuration) {
+        ConcurrentHashMap<WatchKey, Integer> stripe = stripes[stripeFor(videoId)];
+        WatchKey key = new WatchKey(userId, videoId);
+        if (pendingEntries.get() >= maxEntries && !stripe.containsKey(key)) {
+            // Retrying inline on every ping while the database is failing would only stall callers
+            if (!backingOff()) {
+                flush();
+            }
+            if (pendingEntries.get() >= maxEntries) {
+                if (droppedEvents.getAndIncrement() == 0) {
+                    logger.warn("Watch buffer full ({} entries), dropping new watch events until a flush succeeds",
+                            pendingEntries.get());
+                }
+                return;
+            }
+        }
+        merge(stripe, key, watchDuration);
+    }
+
+    public int getPendingEntries() {
+        return pendingEntries.get();
+    }
+
+    @Scheduled(fixedDelayString = "${video.watch.flush-interval-ms:2000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            boolean failed = false;
+            for (ConcurrentHashMap<WatchKey, Integer> stripe : stripes) {
+                failed |= !flushStripe(stripe);
+            }
+            if (failed) {
+                flushFailedAt = System.nanoTime();
+                flushFailing = true;
+            } else {
+                flushFailing = false;
+                long dropped = droppedEvents.getAndSet(0);
+                if (dropped > 0) {
+                    logger.warn("Dropped {} watch events while the buffer was full", dropped);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean backingOff() {
+        return flushFailing && System.nanoTime() - flushFailedAt < TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (pendingEntries.get() > 0) {
+            logger.warn("Shutting down with {} unflushed watch events", pendingEntries.get());
+        }
+    }
+
+    /**
+     * @return false if the batch could not be written and was put back
+     */
+    private boolean flushStripe(ConcurrentHashMap<WatchKey, Integer> stripe) {
+        if (stripe.isEmpty()) {
+            return true;
+        }
+
+        // Drain entry by entry so events recorded during the flush land in the next one
+        Map<Long, Map<Long, Integer>> watchesByVideo = new HashMap<>();
+        for (WatchKey key : stripe.keySet()) {
+            Integer duration = stripe.remove(key);
+            if (duration != null) {
+                pendingEntries.decrementAndGet();
+                watchesByVideo.computeIfAbsent(key.videoId(), id -> new HashMap<>()).put(key.userId(), duration);
+            }
+        }
+
+        if (watchesByVideo.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> interactionJdbcRepository.applyWatchBatch(watchesByVideo));
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to flush {} buffered watch videos, will retry: {}", watchesByVideo.size(), e.getMessage());
+            requeue(stripe, watchesByVideo);
+            return false;
+        }
+    }
+
+    private void requeue(ConcurrentHashMap<WatchKey, Integer> stripe, Map<Long, Map<Long, Integer>> watchesByVideo) {
+        watchesByVideo.forEach((videoId, durations) -> durations.forEach((userId, duration) ->
+                merge(stripe, new WatchKey(userId, videoId), duration)));
+    }
+
+    /**
+     * Keeps the longest duration for the key; returns true when the key was new.
+     */
+    private boolean merge(ConcurrentHashMap<WatchKey, Integer> stripe, WatchKey key, int watchDuration) {
+        boolean[] added = new boolean[1];
+        stripe.compute(key, (k, current) -> {
+            if (current == null) {
+                added[0] = true;
+                return watchDuration;
+            }
+            return Math.max(current, watchDuration);
+        });
+        if (added[0]) {
+            pendingEntries.incrementAndGet();
+        }
+        return added[0];
+    }
+
+    private int stripeFor(Long videoId) {
+        return (int) Math.floorMod(videoId, (long) stripes.length);
+    }
+
+    private record WatchKey(Long userId, Long videoId) {}
+}
@@ -0,0 +1,61 @@
+package com.localnews.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedCursorTest {
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTrips() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+        String encoded = new FeedCursor(createdAt, 42L).encode();
+
+        FeedCursor decoded = FeedCursor.decode(encoded);
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(42L, decoded.getId());
+        assertFalse(encoded.contains("="), "cursor should be unpadded");
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertNull(FeedCursor.decode(null));
+        assertNull(FeedCursor.decode(""));
+        assertNull(FeedCursor.decode("   "));
+    }
+
+    @Test
+    void rejectsInvalidBase64() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("abc+/"));
+    }
+
+    @Test
+    void rejectsCursorWithoutSeparator() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("2025-03-14T09:26:53")));
+    }
+
+    @Test
+    void rejectsMalformedTimestamp() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("yesterday|42")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("|42")));
+    }
+
+    @Test
+    void rejectsMalformedId() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("2025-03-14T09:26:53|")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("2025-03-14T09:26:53|abc")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encodeRaw("2025-03-14T09:26:53|1|2")));
+        assertThrows(IllegalArgumentException.class,
+                () -> FeedCursor.decode(encodeRaw("2025-03-14T09:26:53|99999999999999999999")));
+    }
+}
@@ -0,0 +1,119 @@
+package com.localnews.service;
+
+import com.localnews.service.FileRangeSender.ByteRange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRangeSenderTest {
+
+    private static final long SIZE = 1000;
+
+    private static final String UUID_NAME = "3f2b8c1e-0d4a-4e8b-9c57-1a2b3c4d5e6f.jpg";
+
+    @TempDir
+    Path dir;
+
+    private static List<ByteRange> parse(String header) {
+        return FileRangeSender.parseRanges(header, SIZE);
+    }
+
+    @Test
+    void parsesClosedRange() {
+        assertEquals(List.of(new ByteRange(0, 99)), parse("bytes=0-99"));
+        assertEquals(List.of(new ByteRange(990, 999)), parse("bytes=990-2000"));
+    }
+
+    @Test
+    void parsesSuffixRange() {
+        assertEquals(List.of(new ByteRange(900, 999)), parse("bytes=-100"));
+        assertEquals(List.of(new ByteRange(0, 999)), parse("bytes=-5000"));
+    }
+
+    @Test
+    void parsesOpenEndedRange() {
+        assertEquals(List.of(new ByteRange(500, 999)), parse("bytes=500-"));
+        assertEquals(List.of(new ByteRange(999, 999)), parse("bytes=999-"));
+    }
+
+    @Test
+    void keepsRequestedOrderOfDisjointRanges() {
+        assertEquals(List.of(new ByteRange(500, 599), new ByteRange(0, 99)), parse("bytes=500-599, 0-99"));
+    }
+
+    @Test
+    void mergesOverlappingAndAdjacentRanges() {
+        assertEquals(List.of(new ByteRange(0, 599)), parse("bytes=400-599,0-499"));
+        assertEquals(List.of(new ByteRange(0, 199)), parse("bytes=0-99,100-199"));
+        assertEquals(List.of(new ByteRange(0, 999)), parse("bytes=0-,-10,200-300"));
+        assertEquals(List.of(new ByteRange(0, 49), new ByteRange(100, 299)),
+                parse("bytes=100-199,0-49,150-299"));
+    }
+
+    @Test
+    void ignoresHeaderWithMoreThanSixteenRanges() {
+        assertEquals(16, parse("bytes=" + ranges(16)).size());
+        assertNull(parse("bytes=" + ranges(17)));
+    }
+
+    @Test
+    void returnsEmptyListWhenNothingIsSatisfiable() {
+        assertEquals(List.of(), parse("bytes=1000-"));
+        assertEquals(List.of(), parse("bytes=2000-3000"));
+        assertEquals(List.of(), parse("bytes=-0"));
+        assertEquals(List.of(), FileRangeSender.parseRanges("bytes=-100", 0));
+    }
+
+    @Test
+    void dropsOnlyTheUnsatisfiablePartsOfAMixedHeader() {
+        assertEquals(List.of(new ByteRange(0, 9)), parse("bytes=0-9,2000-"));
+    }
+
+    @Test
+    void ignoresMalformedHeaders() {
+        assertNull(parse("items=0-99"));
+        assertNull(parse("bytes=100"));
+        assertNull(parse("bytes=abc-def"));
+        assertNull(parse("bytes=99-0"));
+        assertNull(parse("bytes=0-99,x"));
+    }
+
+    @Test
+    void uuidNamedFileIsImmutable() throws IOException {
+        assertEquals("public, max-age=31536000, immutable", cacheControl(true));
+    }
+
+    @Test
+    void standInFileIsRevalidatedEvenWhenUuidNamed() throws IOException {
+        assertEquals("public, max-age=0, must-revalidate", cacheControl(false));
+    }
+
+    private String cacheControl(boolean immutable) throws IOException {
+        Path file = Files.write(dir.resolve(UUID_NAME), new byte[16]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new FileRangeSender().send(file, "image/jpeg", immutable,
+                new MockHttpServletRequest("GET", "/uploads/" + UUID_NAME), response);
+
+        assertEquals(200, response.getStatus());
+        return response.getHeader("Cache-Control");
+    }
+
+    // Disjoint 10-byte ranges: 0-9, 20-29, ...
+    private static String ranges(int count) {
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            specs.add(i * 20 + "-" + (i * 20 + 9));
+        }
+        return String.join(",", specs);
+    }
+}
@@ -0,0 +1,206 @@
+package com.localnews.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.localnews.service.Mp4TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mp4BoxParserTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(byte[]... parts) throws IOException {
+        Path file = dir.resolve("video.mp4");
+        Files.write(file, concat(parts));
+        return file;
+    }
+
+    @Test
+    void readsDurationAndFirstKeyframe() throws IOException {
+        byte[] ftyp = ftyp();
+        long media = ftyp.length + 8;
+        byte[] moov = box("moov", mvhd(600, 1500), trak("vide", 16, false, media, media + 16));
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(write(ftyp, box("mdat", new byte[32]), moov));
+
+        assertEquals(2500, info.getDurationMillis());
+        assertEquals(3, info.getDurationSeconds());
+        assertTrue(info.hasVideoTrack());
+        assertEquals(media, info.getKeyframeOffset());
+        assertEquals(16, info.getKeyframeSize());
+        assertEquals(ftyp.length, info.getMdatOffset());
+        assertFalse(info.isFastStart());
+    }
+
+    @Test
+    void ignoresNonVideoTracks() throws IOException {
+        byte[] moov = box("moov", mvhd(1000, 1000), trak("soun", 8, false, 100));
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(write(ftyp(), moov));
+
+        assertFalse(info.hasVideoTrack());
+        assertEquals(-1, info.getKeyframeOffset());
+        assertTrue(info.isFastStart());
+    }
+
+    @Test
+    void readsBoxesWithSixtyFourBitSizes() throws IOException {
+        byte[] ftyp = ftyp();
+        long media = ftyp.length + 16;
+        byte[] mdat = largeBox("mdat", new byte[16]);
+        byte[] moov = largeBox("moov", mvhd(1000, 4000), trak("vide", 8, true, media + 8));
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(write(ftyp, mdat, moov));
+
+        assertEquals(ftyp.length, info.getMdatOffset());
+        assertEquals(ftyp.length + mdat.length, info.getMoovOffset());
+        assertEquals(moov.length, info.getMoovSize());
+        assertEquals(4000, info.getDurationMillis());
+        assertEquals(media + 8, info.getKeyframeOffset());
+    }
+
+    @Test
+    void readsSixtyFourBitChildBoxes() {
+        ByteBuffer container = ByteBuffer.wrap(concat(largeBox("free", new byte[3]), box("skip", new byte[5])));
+        List<String> children = new ArrayList<>();
+
+        Mp4BoxParser.forEachChild(container, (type, payload) -> children.add(type + ":" + payload.remaining()));
+
+        assertEquals(List.of("free:3", "skip:5"), children);
+    }
+
+    @Test
+    void lastBoxWithSizeZeroRunsToEndOfFile() throws IOException {
+        byte[] ftyp = ftyp();
+        byte[] moov = box("moov", mvhd(1000, 1000));
+        byte[] mdat = concat(ints(0), ascii("mdat"), new byte[40]);
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(write(ftyp, moov, mdat));
+
+        assertEquals(ftyp.length + moov.length, info.getMdatOffset());
+        assertTrue(info.isFastStart());
+    }
+
+    @Test
+    void rejectsTopLevelBoxRunningPastEndOfFile() throws IOException {
+        byte[] moov = box("moov", mvhd(1000, 1000));
+        Path file = write(ftyp(), moov);
+        byte[] truncated = Arrays.copyOf(Files.readAllBytes(file), ftyp().length + moov.length - 4);
+        Files.write(file, truncated);
+
+        IOException e = assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+        assertTrue(e.getMessage().contains("moov"));
+    }
+
+    @Test
+    void rejectsBoxSmallerThanItsHeader() throws IOException {
+        Path file = write(ftyp(), ints(4), ascii("free"), box("moov", mvhd(1000, 1000)));
+
+        assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+    }
+
+    @Test
+    void rejectsTruncatedLargeSizeHeader() throws IOException {
+        // A 64-bit size of 2^40 in a file of a few dozen bytes
+        Path file = write(ftyp(), ints(1), ascii("mdat"), longs(1L << 40));
+
+        assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+    }
+
+    @Test
+    void rejectsTruncatedChildInsideMoov() throws IOException {
+        // mvhd too short to hold its timescale and duration
+        Path file = write(ftyp(), box("moov", box("mvhd", ints(0, 0))));
+
+        assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+    }
+
+    @Test
+    void stopsAtChildBoxRunningPastItsParent() throws IOException {
+        byte[] overrun = concat(ints(1000), ascii("trak"), new byte[8]);
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(write(ftyp(), box("moov", mvhd(1000, 2000), overrun)));
+
+        assertEquals(2000, info.getDurationMillis());
+        assertFalse(info.hasVideoTrack());
+    }
+
+    @Test
+    void rejectsFileWithoutMoov() throws IOException {
+        Path file = write(ftyp(), box("mdat", new byte[8]));
+
+        IOException e = assertThrows(IOException.class, () -> Mp4BoxParser.parse(file));
+        assertTrue(e.getMessage().contains("No moov"));
+    }
+
+    @Test
+    void computesOffsetWithoutWalkingEverySampleOfAHugeChunk() throws IOException {
+        // One chunk claiming ~4 billion uniform samples with the keyframe near the end
+        Path file = write(ftyp(), box("moov", mvhd(1000, 1000), videoTrak(
+                box("stss", ints(0, 1, 0xFFFFFFF0)),
+                box("stsc", ints(0, 1, 1, 0xFFFFFFFF, 1)),
+                box("stsz", ints(0, 1, 0xFFFFFFFF)),
+                box("stco", ints(0, 1, 100)))));
+
+        Mp4BoxParser.Mp4Info info = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> Mp4BoxParser.parse(file));
+
+        assertEquals(100 + 0xFFFFFFEFL, info.getKeyframeOffset());
+        assertEquals(1, info.getKeyframeSize());
+    }
+
+    @Test
+    void ignoresKeyframeWhenStscRunsAreOutOfOrder() throws IOException {
+        Path file = write(ftyp(), box("moov", mvhd(1000, 1000), videoTrak(
+                box("stss", ints(0, 1, 6)),
+                box("stsc", ints(0, 3, 1, 1, 1, 5, 1, 1, 2, 1, 1)),
+                box("stsz", ints(0, 8, 6)),
+                box("stco", ints(0, 6, 100, 108, 116, 124, 132, 140)))));
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(file);
+
+        assertTrue(info.hasVideoTrack());
+        assertEquals(-1, info.getKeyframeOffset());
+    }
+
+    @Test
+    void ignoresKeyframeWhenSampleSizeTableIsTruncated() throws IOException {
+        Path file = write(ftyp(), box("moov", mvhd(1000, 1000), videoTrak(
+                box("stss", ints(0, 1, 1000)),
+                box("stsc", ints(0, 1, 1, 1000, 1)),
+                box("stsz", ints(0, 0, 1000, 8, 8)),
+                box("stco", ints(0, 1, 100)))));
+
+        Mp4BoxParser.Mp4Info info = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> Mp4BoxParser.parse(file));
+
+        assertEquals(-1, info.getKeyframeOffset());
+    }
+
+    @Test
+    void ignoresZeroKeyframeNumber() throws IOException {
+        Path file = write(ftyp(), box("moov", mvhd(1000, 1000), videoTrak(
+                box("stss", ints(0, 1, 0)),
+                box("stsc", ints(0, 1, 1, 1, 1)),
+                box("stsz", ints(0, 0, 1, 8)),
+                box("stco", ints(0, 1, 100)))));
+
+        Mp4BoxParser.Mp4Info info = Mp4BoxParser.parse(file);
+
+        assertEquals(-1, info.getKeyframeOffset());
+    }
+
+    private static byte[] videoTrak(byte[]... sampleTables) {
+        byte[] stbl = box("stbl", concat(box("stts", ints(0, 1, 1, 1000)), concat(sampleTables)));
+        return box("trak", box("mdia", mdhd(1000, 1000), hdlr("vide"), box("minf", stbl)));
+    }
+}
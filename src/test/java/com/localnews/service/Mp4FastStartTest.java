@@ -0,0 +1,138 @@
+package com.localnews.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.localnews.service.Mp4TestFiles.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mp4FastStartTest {
+
+    private static final int CHUNK = 8;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * ftyp, then mdat holding four 8-byte chunks (two per track), then moov.
+     * The video track uses stco, the audio track co64.
+     */
+    private static byte[] trailingMoovFile() {
+        byte[] ftyp = ftyp();
+        byte[] media = ascii("AAAAAAAABBBBBBBBCCCCCCCCDDDDDDDD");
+        long first = ftyp.length + 8;
+        byte[] moov = box("moov",
+                mvhd(1000, 2000),
+                trak("vide", CHUNK, false, first, first + CHUNK),
+                trak("soun", CHUNK, true, first + 2 * CHUNK, first + 3 * CHUNK));
+        return concat(ftyp, box("mdat", media), moov);
+    }
+
+    @Test
+    void movesTrailingMoovToFrontAndPatchesChunkOffsets() throws IOException {
+        byte[] original = trailingMoovFile();
+        Path file = dir.resolve("video.mp4");
+        Files.write(file, original);
+
+        Mp4BoxParser.Mp4Info before = Mp4BoxParser.parse(file);
+        assertFalse(before.isFastStart());
+
+        assertTrue(Mp4FastStart.rewrite(file));
+
+        byte[] rewritten = Files.readAllBytes(file);
+        assertEquals(original.length, rewritten.length);
+
+        Mp4BoxParser.Mp4Info after = Mp4BoxParser.parse(file);
+        assertTrue(after.isFastStart());
+        assertEquals(ftyp().length, after.getMoovOffset());
+        assertEquals(before.getMoovSize(), after.getMoovSize());
+        assertEquals(2000, after.getDurationMillis());
+        assertEquals("AAAAAAAA", chunkAt(rewritten, after.getKeyframeOffset()));
+
+        List<String> chunks = new ArrayList<>();
+        for (long offset : chunkOffsets(rewritten, after)) {
+            chunks.add(chunkAt(rewritten, offset));
+        }
+        assertEquals(List.of("AAAAAAAA", "BBBBBBBB", "CCCCCCCC", "DDDDDDDD"), chunks);
+
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void leavesFastStartFileUntouched() throws IOException {
+        Path file = dir.resolve("video.mp4");
+        Files.write(file, trailingMoovFile());
+        assertTrue(Mp4FastStart.rewrite(file));
+        byte[] fastStart = Files.readAllBytes(file);
+
+        assertFalse(Mp4FastStart.rewrite(file));
+        assertArrayEquals(fastStart, Files.readAllBytes(file));
+    }
+
+    @Test
+    void ignoresFilesThatAreNotMp4() throws IOException {
+        Path file = dir.resolve("clip.webm");
+        byte[] content = new byte[64];
+        Arrays.fill(content, (byte) 0x1A);
+        Files.write(file, content);
+
+        assertFalse(Mp4FastStart.rewrite(file));
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    @Test
+    void leavesFileIntactWhenChunkTableIsCorrupt() throws IOException {
+        byte[] ftyp = ftyp();
+        // stco claims 1000 entries but holds one
+        byte[] stbl = box("stbl", box("stco", ints(0, 1000, ftyp.length + 8)));
+        byte[] moov = box("moov", mvhd(1000, 1000), box("trak", box("mdia", box("minf", stbl))));
+        byte[] original = concat(ftyp, box("mdat", new byte[CHUNK]), moov);
+        Path file = dir.resolve("video.mp4");
+        Files.write(file, original);
+
+        assertThrows(IOException.class, () -> Mp4FastStart.rewrite(file));
+
+        assertArrayEquals(original, Files.readAllBytes(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    private static String chunkAt(byte[] file, long offset) {
+        return new String(file, (int) offset, CHUNK, StandardCharsets.ISO_8859_1);
+    }
+
+    /** Every stco/co64 entry of every track, in track order. */
+    private static List<Long> chunkOffsets(byte[] file, Mp4BoxParser.Mp4Info info) {
+        ByteBuffer moov = ByteBuffer.wrap(file, (int) info.getMoovOffset() + 8, (int) info.getMoovSize() - 8).slice();
+        List<Long> offsets = new ArrayList<>();
+        Mp4BoxParser.forEachChild(moov, (type, trak) -> {
+            if (!"trak".equals(type)) {
+                return;
+            }
+            ByteBuffer stbl = Mp4BoxParser.findChild(Mp4BoxParser.findChild(
+                    Mp4BoxParser.findChild(trak, "mdia"), "minf"), "stbl");
+            Mp4BoxParser.forEachChild(stbl, (tableType, table) -> {
+                for (int i = 0; i < table.getInt(4); i++) {
+                    if ("stco".equals(tableType)) {
+                        offsets.add(Integer.toUnsignedLong(table.getInt(8 + i * 4)));
+                    } else if ("co64".equals(tableType)) {
+                        offsets.add(table.getLong(8 + i * 8));
+                    }
+                }
+            });
+        });
+        return offsets;
+    }
+}
@@ -0,0 +1,93 @@
+package com.localnews.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds small ISO-BMFF files box by box for the MP4 tests.
+ */
+final class Mp4TestFiles {
+
+    private Mp4TestFiles() {}
+
+    static byte[] box(String type, byte[]... payloads) {
+        byte[] payload = concat(payloads);
+        return concat(ints(8 + payload.length), ascii(type), payload);
+    }
+
+    /** A box with the 64-bit "largesize" header form. */
+    static byte[] largeBox(String type, byte[]... payloads) {
+        byte[] payload = concat(payloads);
+        return concat(ints(1), ascii(type), longs(16L + payload.length), payload);
+    }
+
+    static byte[] ftyp() {
+        return box("ftyp", ascii("isom"), ints(0), ascii("isom"));
+    }
+
+    static byte[] mvhd(int timescale, int duration) {
+        return box("mvhd", ints(0, 0, 0, timescale, duration));
+    }
+
+    static byte[] mdhd(int timescale, int duration) {
+        return box("mdhd", ints(0, 0, 0, timescale, duration));
+    }
+
+    static byte[] hdlr(String handler) {
+        return box("hdlr", ints(0, 0), ascii(handler), ints(0, 0, 0), new byte[1]);
+    }
+
+    /**
+     * A track with one sample of {@code sampleSize} bytes per chunk, at the given
+     * chunk offsets, stored in {@code stco} or {@code co64}.
+     */
+    static byte[] trak(String handler, int sampleSize, boolean co64, long... chunkOffsets) {
+        int samples = chunkOffsets.length;
+        byte[] offsets;
+        if (co64) {
+            offsets = box("co64", ints(0, samples), longs(chunkOffsets));
+        } else {
+            int[] narrow = new int[samples];
+            for (int i = 0; i < samples; i++) {
+                narrow[i] = (int) chunkOffsets[i];
+            }
+            offsets = box("stco", ints(0, samples), ints(narrow));
+        }
+        byte[] stbl = box("stbl",
+                box("stts", ints(0, 1, samples, 1000)),
+                box("stss", ints(0, 1, 1)),
+                box("stsc", ints(0, 1, 1, 1, 1)),
+                box("stsz", ints(0, sampleSize, samples)),
+                offsets);
+        return box("trak", box("mdia", mdhd(1000, samples * 1000), hdlr(handler), box("minf", stbl)));
+    }
+
+    static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    static byte[] longs(long... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.array();
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package com.localnews.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtpRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final OtpRateLimiter limiter = new OtpRateLimiter();
+    private long now = 1_000 * SECOND;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "mobileCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "mobileRefillSeconds", 120L);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 5);
+        ReflectionTestUtils.setField(limiter, "ipRefillSeconds", 6L);
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 100);
+        limiter.nanoClock = () -> now;
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerInterval() {
+        OtpRateLimiter.TokenBucket bucket = new OtpRateLimiter.TokenBucket(2, 10, 0);
+
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertFalse(bucket.tryTake(0));
+
+        assertFalse(bucket.tryTake(5 * SECOND));
+        assertTrue(bucket.tryTake(10 * SECOND));
+        assertFalse(bucket.tryTake(10 * SECOND));
+
+        assertFalse(bucket.isFull(25 * SECOND));
+        assertTrue(bucket.isFull(30 * SECOND));
+    }
+
+    @Test
+    void bucketNeverHoldsMoreThanItsCapacity() {
+        OtpRateLimiter.TokenBucket bucket = new OtpRateLimiter.TokenBucket(2, 10, 0);
+
+        assertTrue(bucket.tryTake(1_000 * SECOND));
+        assertTrue(bucket.tryTake(1_000 * SECOND));
+        assertFalse(bucket.tryTake(1_000 * SECOND));
+    }
+
+    @Test
+    void limitsSendsPerMobileNumber() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.allowSend("9000000001", "10.0.0." + i));
+        }
+        assertFalse(limiter.allowSend("9000000001", "10.0.0.9"));
+        assertTrue(limiter.allowSend("9000000002", "10.0.0.9"));
+
+        now += 120 * SECOND;
+        assertTrue(limiter.allowSend("9000000001", "10.0.0.9"));
+    }
+
+    @Test
+    void ipBucketCoversSendsAndVerifies() {
+        assertTrue(limiter.allowSend("9000000001", "10.0.0.1"));
+        assertTrue(limiter.allowSend("9000000002", "10.0.0.1"));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.allowVerify("10.0.0.1"));
+        }
+        assertFalse(limiter.allowVerify("10.0.0.1"));
+        assertFalse(limiter.allowSend("9000000003", "10.0.0.1"));
+        assertTrue(limiter.allowVerify("10.0.0.2"));
+    }
+
+    @Test
+    void unknownClientIsNotLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.allowVerify(null));
+        }
+    }
+
+    @Test
+    void refusesNewKeysOnceMaxBucketsIsReached() {
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 2);
+
+        assertTrue(limiter.allowVerify("10.0.0.1"));
+        assertTrue(limiter.allowVerify("10.0.0.2"));
+        assertFalse(limiter.allowVerify("10.0.0.3"));
+
+        // Keys that already have a bucket are unaffected
+        assertTrue(limiter.allowVerify("10.0.0.1"));
+    }
+
+    @Test
+    void inlineSweepRunsAtMostOncePerSecond() {
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 1);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 1);
+        ReflectionTestUtils.setField(limiter, "ipRefillSeconds", 1L);
+
+        assertTrue(limiter.allowVerify("10.0.0.1"));
+        now += SECOND / 10;
+        // Sweeps inline, but the first bucket is still drained
+        assertFalse(limiter.allowVerify("10.0.0.2"));
+
+        // The first bucket is full again, but the last inline sweep was under a second ago
+        now += SECOND - SECOND / 20;
+        assertFalse(limiter.allowVerify("10.0.0.2"));
+
+        now += SECOND / 10;
+        assertTrue(limiter.allowVerify("10.0.0.2"));
+    }
+
+    @Test
+    void scheduledSweepDropsFullBuckets() {
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 1);
+        assertTrue(limiter.allowVerify("10.0.0.1"));
+        assertFalse(limiter.allowVerify("10.0.0.2"));
+
+        now += 6 * SECOND;
+        limiter.removeIdle();
+
+        now += 1;
+        assertTrue(limiter.allowVerify("10.0.0.2"));
+    }
+}
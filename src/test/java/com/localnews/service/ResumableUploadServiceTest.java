@@ -0,0 +1,119 @@
+package com.localnews.service;
+
+import com.localnews.entity.UploadSession;
+import com.localnews.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceTest {
+
+    private static final String SESSION_ID = "0b6f3c1e-7f3a-4a5e-9d0c-2a9f6e1b7c44";
+    private static final byte[] BODY = "not really a video, but complete".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private ContentAddressedStore contentStore;
+
+    @Mock
+    private VideoFastStart videoFastStart;
+
+    @InjectMocks
+    private ResumableUploadService service;
+
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        UploadStreamWriter writer = new UploadStreamWriter();
+        ReflectionTestUtils.setField(writer, "bufferSize", 4096);
+        ReflectionTestUtils.setField(service, "uploadStreamWriter", writer);
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+
+        session = new UploadSession();
+        session.setId(SESSION_ID);
+        session.setTitle("Flood update");
+        session.setDistrictId(1L);
+        session.setContentType("video/mp4");
+        session.setTotalSize(BODY.length);
+        session.setReceivedBytes(BODY.length);
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(uploadSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+
+        Files.createDirectories(partFile().getParent());
+        Files.write(partFile(), BODY);
+    }
+
+    private Path partFile() {
+        return uploadDir.resolve(".resumable").resolve(SESSION_ID + ".part");
+    }
+
+    private Path stored(StoredFile file) {
+        return uploadDir.resolve(file.getUrl().substring("/uploads/".length()));
+    }
+
+    @Test
+    void completeCanBeRetriedAfterTheVideoCouldNotBeCreated() throws IOException {
+        when(videoFastStart.prepare(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(contentStore.adopt(any(), anyString())).thenAnswer(invocation -> ((StoredFile) invocation.getArgument(0)).getUrl());
+
+        StoredFile first = service.assemble(SESSION_ID);
+        assertArrayEquals(BODY, Files.readAllBytes(stored(first)));
+
+        // createVideo failed: the controller releases the stored object, which deletes its bytes
+        Files.delete(stored(first));
+
+        StoredFile retried = service.assemble(SESSION_ID);
+        assertNotEquals(first.getUrl(), retried.getUrl());
+        assertArrayEquals(BODY, Files.readAllBytes(stored(retried)));
+        assertEquals(first.getSha256(), retried.getSha256());
+
+        service.markCompleted(SESSION_ID, 42L);
+        assertFalse(Files.exists(partFile()));
+        assertEquals(UploadSession.Status.COMPLETED, session.getStatus());
+        assertEquals(42L, session.getVideoId());
+        assertArrayEquals(BODY, Files.readAllBytes(stored(retried)));
+    }
+
+    @Test
+    void partFileSurvivesAssemblyOfAlreadyStoredContent() throws IOException {
+        when(contentStore.acquireExisting(anyString())).thenReturn("/uploads/video_existing.mp4");
+
+        StoredFile stored = service.assemble(SESSION_ID);
+
+        assertEquals("/uploads/video_existing.mp4", stored.getUrl());
+        assertTrue(Files.exists(partFile()));
+        verify(contentStore, never()).adopt(any(), anyString());
+    }
+
+    @Test
+    void rejectsIncompleteUpload() {
+        session.setReceivedBytes(BODY.length - 1);
+
+        assertThrows(IllegalStateException.class, () -> service.assemble(SESSION_ID));
+        assertTrue(Files.exists(partFile()));
+    }
+}
@@ -0,0 +1,212 @@
+package com.localnews.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3FileStorageServiceTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final long BACKOFF_MS = 40;
+
+    @Mock
+    private S3Client s3Client;
+
+    @InjectMocks
+    private S3FileStorageService service;
+
+    // part number -> bytes received for it
+    private final Map<Integer, Integer> partLengths = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "s3Enabled", true);
+        ReflectionTestUtils.setField(service, "bucketName", "news");
+        ReflectionTestUtils.setField(service, "awsRegion", "ap-south-1");
+        ReflectionTestUtils.setField(service, "partSize", PART_SIZE);
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", BACKOFF_MS);
+        service.init();
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void splitsStreamIntoPartSizedParts() throws IOException {
+        acceptParts();
+        byte[] body = randomBytes(2 * PART_SIZE + 1234);
+
+        StoredFile stored = service.uploadStream(new ByteArrayInputStream(body), "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE);
+
+        assertEquals(Map.of(1, PART_SIZE, 2, PART_SIZE, 3, 1234), partLengths);
+        assertEquals(body.length, stored.getSize());
+        assertEquals(sha256(body), stored.getSha256());
+        assertTrue(stored.getUrl().startsWith("https://news.s3.ap-south-1.amazonaws.com/videos/"));
+        assertTrue(stored.getUrl().endsWith(".mp4"));
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(complete.capture());
+        assertEquals("upload-1", complete.getValue().uploadId());
+        assertEquals(List.of(1, 2, 3), complete.getValue().multipartUpload().parts().stream()
+                .map(CompletedPart::partNumber).toList());
+        assertEquals(List.of("etag-1", "etag-2", "etag-3"), complete.getValue().multipartUpload().parts().stream()
+                .map(CompletedPart::eTag).toList());
+        verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void bodyOfExactPartMultipleHasNoEmptyTrailingPart() throws IOException {
+        acceptParts();
+
+        service.uploadStream(new ByteArrayInputStream(new byte[2 * PART_SIZE]), "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE);
+
+        assertEquals(Map.of(1, PART_SIZE, 2, PART_SIZE), partLengths);
+    }
+
+    @Test
+    void retriesServerErrorsWithExponentialBackoff() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() <= 2) {
+                throw s3Error(503);
+            }
+            return UploadPartResponse.builder().eTag("etag").build();
+        });
+
+        long start = System.nanoTime();
+        service.uploadStream(new ByteArrayInputStream(new byte[100]), "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, calls.get());
+        assertTrue(elapsedMs >= BACKOFF_MS + 2 * BACKOFF_MS, "backoff was " + elapsedMs + "ms");
+        verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsWhenPartFailsOnEveryAttempt() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenThrow(s3Error(503));
+
+        assertThrows(IOException.class, () -> service.uploadStream(new ByteArrayInputStream(new byte[100]),
+                "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE));
+
+        verify(s3Client, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verifyAborted();
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenThrow(s3Error(403));
+
+        assertThrows(IOException.class, () -> service.uploadStream(new ByteArrayInputStream(new byte[100]),
+                "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE));
+
+        verify(s3Client, times(1)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verifyAborted();
+    }
+
+    @Test
+    void abortsWhenStreamFails() {
+        // The first part may be cancelled before it is sent
+        lenient().when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        InputStream failing = new InputStream() {
+            private int remaining = PART_SIZE + 10;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- <= 0) {
+                    throw new IOException("client disconnected");
+                }
+                return 0;
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> service.uploadStream(failing,
+                "videos", "clip.mp4", "video/mp4", Long.MAX_VALUE));
+        assertEquals("client disconnected", e.getMessage());
+        verifyAborted();
+    }
+
+    @Test
+    void abortsWhenBodyExceedsLimit() {
+        lenient().when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        assertThrows(IOException.class, () -> service.uploadStream(new ByteArrayInputStream(new byte[PART_SIZE + 1]),
+                "videos", "clip.mp4", "video/mp4", PART_SIZE));
+        verifyAborted();
+    }
+
+    private void acceptParts() {
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            partLengths.put(request.partNumber(), request.contentLength().intValue());
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+    }
+
+    private void verifyAborted() {
+        ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3Client).abortMultipartUpload(abort.capture());
+        assertEquals("upload-1", abort.getValue().uploadId());
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    private static S3Exception s3Error(int status) {
+        return (S3Exception) S3Exception.builder().statusCode(status).message("status " + status).build();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(byte[] bytes) throws IOException {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
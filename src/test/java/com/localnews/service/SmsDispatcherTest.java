@@ -0,0 +1,218 @@
+package com.localnews.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmsDispatcherTest {
+
+    private SmsDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    private SmsDispatcher start(RecordingSmsProvider provider, long batchWindowMillis, int maxAttempts) {
+        dispatcher = new SmsDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "provider", provider);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMillis", 1L);
+        ReflectionTestUtils.setField(dispatcher, "batchWindowMillis", batchWindowMillis);
+        dispatcher.init();
+        return dispatcher;
+    }
+
+    @Test
+    void groupsIdenticalTextIntoBatchesOfAtMostMaxBatchSize() throws InterruptedException {
+        RecordingSmsProvider provider = new RecordingSmsProvider(3, 4);
+        start(provider, 200, 1);
+
+        for (int i = 1; i <= 7; i++) {
+            dispatcher.enqueue("+1" + i, "Road closed");
+        }
+        dispatcher.enqueue("+21", "Power cut");
+        dispatcher.enqueue("+22", "Power cut");
+        awaitTrue(() -> provider.recipientsSent() == 9);
+
+        List<Integer> roadClosed = new ArrayList<>();
+        List<Integer> powerCut = new ArrayList<>();
+        for (RecordingSmsProvider.Call call : provider.calls()) {
+            (call.message().equals("Road closed") ? roadClosed : powerCut).add(call.mobileNumbers().size());
+        }
+        Collections.sort(roadClosed);
+        assertEquals(List.of(1, 3, 3), roadClosed);
+        assertEquals(List.of(2), powerCut);
+    }
+
+    @Test
+    void neverExceedsMaxConcurrentRequests() throws InterruptedException {
+        RecordingSmsProvider provider = new RecordingSmsProvider(1, 2);
+        provider.holdCalls();
+        start(provider, 0, 1);
+
+        for (int i = 1; i <= 6; i++) {
+            dispatcher.enqueue("+1" + i, "OTP " + i);
+        }
+        awaitTrue(() -> provider.calls().size() == 2);
+        Thread.sleep(100);
+        assertEquals(2, provider.calls().size(), "a third call started while two were in flight");
+
+        provider.releaseCalls();
+        awaitTrue(() -> provider.recipientsSent() == 6);
+        assertEquals(2, provider.maxInFlight());
+    }
+
+    @Test
+    void retriesFailedRecipientsUpToMaxAttempts() throws InterruptedException {
+        RecordingSmsProvider provider = new RecordingSmsProvider(10, 4);
+        provider.alwaysFail("+11");
+        start(provider, 0, 3);
+
+        dispatcher.enqueue("+11", "Water supply notice");
+        dispatcher.enqueue("+12", "Water supply notice");
+        awaitTrue(() -> provider.attemptsFor("+11") == 3);
+        Thread.sleep(100);
+
+        assertEquals(3, provider.attemptsFor("+11"));
+        assertEquals(1, provider.attemptsFor("+12"));
+    }
+
+    @Test
+    void holdsMessagesEnqueuedInATransactionUntilCommit() throws InterruptedException {
+        RecordingSmsProvider provider = new RecordingSmsProvider(1, 1);
+        start(provider, 0, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(dispatcher.enqueue("+11", "Your OTP is 123456"));
+        Thread.sleep(100);
+        assertTrue(provider.calls().isEmpty());
+        assertEquals(0, dispatcher.getQueueSize());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        awaitTrue(() -> provider.attemptsFor("+11") == 1);
+    }
+
+    @Test
+    void dropsMessagesEnqueuedInARolledBackTransaction() throws InterruptedException {
+        RecordingSmsProvider provider = new RecordingSmsProvider(1, 1);
+        start(provider, 0, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        dispatcher.enqueue("+11", "Your OTP is 123456");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        Thread.sleep(100);
+
+        assertTrue(provider.calls().isEmpty());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the dispatcher");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records every call, tracks how many are in flight at once and fails the
+     * numbers it is told to.
+     */
+    private static class RecordingSmsProvider implements SmsProvider {
+
+        record Call(List<String> mobileNumbers, String message) {
+        }
+
+        private final int maxBatchSize;
+        private final int maxConcurrentRequests;
+        private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private volatile Set<String> failing = Set.of();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        RecordingSmsProvider(int maxBatchSize, int maxConcurrentRequests) {
+            this.maxBatchSize = maxBatchSize;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        void alwaysFail(String... mobileNumbers) {
+            failing = Set.of(mobileNumbers);
+        }
+
+        void holdCalls() {
+            gate = new CountDownLatch(1);
+        }
+
+        void releaseCalls() {
+            gate.countDown();
+        }
+
+        List<Call> calls() {
+            synchronized (calls) {
+                return new ArrayList<>(calls);
+            }
+        }
+
+        int recipientsSent() {
+            return calls().stream().mapToInt(call -> call.mobileNumbers().size()).sum();
+        }
+
+        int attemptsFor(String mobileNumber) {
+            return (int) calls().stream().filter(call -> call.mobileNumbers().contains(mobileNumber)).count();
+        }
+
+        int maxInFlight() {
+            return maxInFlight.get();
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return maxBatchSize;
+        }
+
+        @Override
+        public int maxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        @Override
+        public List<String> send(List<String> mobileNumbers, String message) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                calls.add(new Call(List.copyOf(mobileNumbers), message));
+                gate.await();
+                return mobileNumbers.stream().filter(failing::contains).toList();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return mobileNumbers;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
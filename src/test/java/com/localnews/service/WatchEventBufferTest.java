@@ -0,0 +1,85 @@
+package com.localnews.service;
+
+import com.localnews.repository.VideoInteractionJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WatchEventBufferTest {
+
+    @Mock
+    private VideoInteractionJdbcRepository interactionJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private WatchEventBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(buffer, "stripeCount", 1);
+        ReflectionTestUtils.setField(buffer, "maxEntries", 2);
+        ReflectionTestUtils.setField(buffer, "retryBackoffMs", 60_000L);
+        buffer.init();
+
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void flushesInlineWhenFull() {
+        buffer.record(1L, 10L, 5);
+        buffer.record(2L, 10L, 5);
+        buffer.record(3L, 10L, 5);
+
+        verify(interactionJdbcRepository).applyWatchBatch(anyMap());
+        assertEquals(1, buffer.getPendingEntries());
+    }
+
+    @Test
+    void backsOffAndDropsNewPingsAfterFailedFlush() {
+        doThrow(new DataAccessResourceFailureException("down")).when(interactionJdbcRepository).applyWatchBatch(anyMap());
+
+        buffer.record(1L, 10L, 5);
+        buffer.record(2L, 10L, 5);
+        // At the cap: one inline flush, which fails and requeues
+        buffer.record(3L, 10L, 5);
+        verify(interactionJdbcRepository, times(1)).applyWatchBatch(anyMap());
+        assertEquals(2, buffer.getPendingEntries());
+
+        // Backing off: no further inline flushes, new pairs are dropped, known pairs still merge
+        for (long userId = 4; userId < 100; userId++) {
+            buffer.record(userId, 10L, 5);
+        }
+        buffer.record(1L, 10L, 30);
+        verify(interactionJdbcRepository, times(1)).applyWatchBatch(anyMap());
+        assertEquals(2, buffer.getPendingEntries());
+
+        // The scheduled flush still retries; once it succeeds, new pings are accepted again
+        doNothing().when(interactionJdbcRepository).applyWatchBatch(anyMap());
+        buffer.flush();
+        assertEquals(0, buffer.getPendingEntries());
+
+        buffer.record(100L, 10L, 5);
+        assertEquals(1, buffer.getPendingEntries());
+    }
+}